@@ -4,19 +4,26 @@ import java.util.Locale;
 
 public abstract class InvalidConfigurationValueException extends Exception
 {
+    private final String message;
+    private final Object[] parameters;
+
     public InvalidConfigurationValueException( String message, Object... parameters )
     {
         super( String.format( message, parameters ) );
+        this.message = message;
+        this.parameters = parameters;
     }
 
     public InvalidConfigurationValueException( Throwable cause, String message, Object... parameters )
     {
         super( String.format( message, parameters ), cause );
+        this.message = message;
+        this.parameters = parameters;
     }
 
     public String localizeMessage( Locale locale )
     {
-        return getMessage();
+        return LocalizedMessages.format( locale, getClass(), message, parameters );
     }
 
     public abstract String value();
@@ -0,0 +1,189 @@
+package org.thobe.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+public final class LocalizedMessages
+{
+    private static final String BUNDLE = "Messages";
+    private static final ResourceBundle.Control NO_FALLBACK =
+            ResourceBundle.Control.getNoFallbackControl( ResourceBundle.Control.FORMAT_PROPERTIES );
+    private static final ConcurrentMap<Locale, ConcurrentMap<Class<?>, ConcurrentMap<String, Template>>> TEMPLATES =
+            new ConcurrentHashMap<Locale, ConcurrentMap<Class<?>, ConcurrentMap<String, Template>>>();
+
+    public static String format( Locale locale, Class<?> origin, String defaultPattern, Object... parameters )
+    {
+        return template( locale, origin, null, defaultPattern ).format( locale, parameters );
+    }
+
+    // a term used within the messages of the origin, looked up as origin.key
+    public static String term( Locale locale, Class<?> origin, String key, String defaultTerm )
+    {
+        return template( locale, origin, key, defaultTerm ).format( locale, new Object[0] );
+    }
+
+    private static Template template( Locale locale, Class<?> origin, String key, String defaultPattern )
+    {
+        ConcurrentMap<String, Template> templates = cache( cache( TEMPLATES, locale ), origin );
+        String cacheKey = key == null ? defaultPattern : key + '=' + defaultPattern;
+        Template template = templates.get( cacheKey );
+        if ( template == null )
+        {
+            template = Template.compile( lookup( locale, origin, key, defaultPattern ) );
+            Template raced = templates.putIfAbsent( cacheKey, template );
+            if ( raced != null )
+            {
+                template = raced;
+            }
+        }
+        return template;
+    }
+
+    private static <K, K2, V> ConcurrentMap<K2, V> cache( ConcurrentMap<K, ConcurrentMap<K2, V>> caches, K key )
+    {
+        ConcurrentMap<K2, V> cache = caches.get( key );
+        if ( cache == null )
+        {
+            ConcurrentMap<K2, V> created = new ConcurrentHashMap<K2, V>();
+            cache = caches.putIfAbsent( key, created );
+            if ( cache == null )
+            {
+                cache = created;
+            }
+        }
+        return cache;
+    }
+
+    private static String lookup( Locale locale, Class<?> origin, String term, String defaultPattern )
+    {
+        String key = origin.getSimpleName();
+        Package pkg = origin.getPackage();
+        if ( key.length() == 0 || pkg == null )
+        {
+            return defaultPattern;
+        }
+        if ( term != null )
+        {
+            key = key + '.' + term;
+        }
+        try
+        {
+            ClassLoader loader = origin.getClassLoader();
+            ResourceBundle bundle = ResourceBundle.getBundle(
+                    pkg.getName() + '.' + BUNDLE, locale,
+                    loader == null ? ClassLoader.getSystemClassLoader() : loader, NO_FALLBACK );
+            return bundle.containsKey( key ) ? bundle.getString( key ) : defaultPattern;
+        }
+        catch ( MissingResourceException e )
+        {
+            return defaultPattern;
+        }
+    }
+
+    private LocalizedMessages()
+    {
+        // static utility
+    }
+
+    private static final class Template
+    {
+        private final String pattern;
+        private final String[] literals;
+        private final int[] arguments;
+
+        private Template( String pattern, String[] literals, int[] arguments )
+        {
+            this.pattern = pattern;
+            this.literals = literals;
+            this.arguments = arguments;
+        }
+
+        static Template compile( String pattern )
+        {
+            List<String> literals = new ArrayList<String>();
+            List<Integer> arguments = new ArrayList<Integer>();
+            StringBuilder literal = new StringBuilder();
+            int next = 0;
+            for ( int i = 0; i < pattern.length(); i++ )
+            {
+                char c = pattern.charAt( i );
+                if ( c != '%' )
+                {
+                    literal.append( c );
+                    continue;
+                }
+                if ( i + 1 >= pattern.length() )
+                {
+                    return unsupported( pattern );
+                }
+                c = pattern.charAt( ++i );
+                if ( c == '%' )
+                {
+                    literal.append( '%' );
+                }
+                else if ( c == 'n' )
+                {
+                    literal.append( System.getProperty( "line.separator" ) );
+                }
+                else if ( c == 's' )
+                {
+                    literals.add( literal.toString() );
+                    literal.setLength( 0 );
+                    arguments.add( next++ );
+                }
+                else if ( c >= '1' && c <= '9' )
+                {
+                    int index = 0;
+                    for ( ; i < pattern.length() && Character.isDigit( pattern.charAt( i ) ); i++ )
+                    {
+                        index = index * 10 + (pattern.charAt( i ) - '0');
+                    }
+                    if ( i + 1 >= pattern.length() || pattern.charAt( i ) != '$' || pattern.charAt( i + 1 ) != 's' )
+                    {
+                        return unsupported( pattern );
+                    }
+                    i++;
+                    literals.add( literal.toString() );
+                    literal.setLength( 0 );
+                    arguments.add( index - 1 );
+                }
+                else
+                {
+                    return unsupported( pattern );
+                }
+            }
+            literals.add( literal.toString() );
+            int[] indices = new int[arguments.size()];
+            for ( int i = 0; i < indices.length; i++ )
+            {
+                indices[i] = arguments.get( i );
+            }
+            return new Template( pattern, literals.toArray( new String[literals.size()] ), indices );
+        }
+
+        private static Template unsupported( String pattern )
+        {
+            return new Template( pattern, null, null );
+        }
+
+        String format( Locale locale, Object[] parameters )
+        {
+            if ( literals == null )
+            {
+                return String.format( locale, pattern, parameters );
+            }
+            StringBuilder result = new StringBuilder( pattern.length() + 16 * arguments.length );
+            for ( int i = 0; i < arguments.length; i++ )
+            {
+                result.append( literals[i] ).append( arguments[i] < parameters.length
+                                                     ? String.valueOf( parameters[arguments[i]] ) : "null" );
+            }
+            return result.append( literals[arguments.length] ).toString();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package org.thobe.config.impl;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+final class BinaryValues
+{
+    private static final byte NULL = 0, BOOLEAN = 1, BYTE = 2, SHORT = 3, INT = 4, LONG = 5, FLOAT = 6, DOUBLE = 7,
+            STRING = 8, LIST = 9;
+
+    private BinaryValues()
+    {
+        // static utility
+    }
+
+    static boolean isShareable( Object value )
+    {
+        if ( value instanceof List<?> )
+        {
+            for ( Object element : (List<?>) value )
+            {
+                if ( element instanceof List<?> || !isShareable( element ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return value == null || value instanceof Boolean || value instanceof Byte || value instanceof Short ||
+               value instanceof Integer || value instanceof Long || value instanceof Float ||
+               value instanceof Double || value instanceof String;
+    }
+
+    static ByteBuffer ensure( ByteBuffer data, int bytes )
+    {
+        if ( data.remaining() >= bytes )
+        {
+            return data;
+        }
+        ByteBuffer grown = ByteBuffer.allocate( Math.max( data.capacity() * 2, data.position() + bytes ) );
+        data.flip();
+        return grown.put( data );
+    }
+
+    static ByteBuffer putString( ByteBuffer data, String value )
+    {
+        data = ensure( data, 4 + value.length() * 2 );
+        data.putInt( value.length() );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            data.putChar( value.charAt( i ) );
+        }
+        return data;
+    }
+
+    static ByteBuffer putValue( ByteBuffer data, Object value )
+    {
+        data = ensure( data, 9 );
+        if ( value == null )
+        {
+            data.put( NULL );
+        }
+        else if ( value instanceof Boolean )
+        {
+            data.put( BOOLEAN ).put( (byte) ((Boolean) value ? 1 : 0) );
+        }
+        else if ( value instanceof Byte )
+        {
+            data.put( BYTE ).put( (Byte) value );
+        }
+        else if ( value instanceof Short )
+        {
+            data.put( SHORT ).putShort( (Short) value );
+        }
+        else if ( value instanceof Integer )
+        {
+            data.put( INT ).putInt( (Integer) value );
+        }
+        else if ( value instanceof Long )
+        {
+            data.put( LONG ).putLong( (Long) value );
+        }
+        else if ( value instanceof Float )
+        {
+            data.put( FLOAT ).putFloat( (Float) value );
+        }
+        else if ( value instanceof Double )
+        {
+            data.put( DOUBLE ).putDouble( (Double) value );
+        }
+        else if ( value instanceof String )
+        {
+            data.put( STRING );
+            data = putString( data, (String) value );
+        }
+        else
+        {
+            List<?> list = (List<?>) value;
+            data.put( LIST ).putInt( list.size() );
+            for ( Object element : list )
+            {
+                data = putValue( data, element );
+            }
+        }
+        return data;
+    }
+
+    static String getString( ByteBuffer data )
+    {
+        char[] chars = new char[data.getInt()];
+        for ( int i = 0; i < chars.length; i++ )
+        {
+            chars[i] = data.getChar();
+        }
+        return new String( chars );
+    }
+
+    static Object getValue( ByteBuffer data )
+    {
+        byte tag = data.get();
+        switch ( tag )
+        {
+        case NULL:
+            return null;
+        case BOOLEAN:
+            return data.get() != 0;
+        case BYTE:
+            return data.get();
+        case SHORT:
+            return data.getShort();
+        case INT:
+            return data.getInt();
+        case LONG:
+            return data.getLong();
+        case FLOAT:
+            return data.getFloat();
+        case DOUBLE:
+            return data.getDouble();
+        case STRING:
+            return getString( data );
+        case LIST:
+            Object[] elements = new Object[data.getInt()];
+            for ( int i = 0; i < elements.length; i++ )
+            {
+                elements[i] = getValue( data );
+            }
+            return DefaultValue.listOf( elements );
+        default:
+            throw new IllegalStateException( "Corrupt encoded configuration value, unknown tag " + tag );
+        }
+    }
+
+    static void skipValue( ByteBuffer data )
+    {
+        byte tag = data.get();
+        switch ( tag )
+        {
+        case NULL:
+            break;
+        case BOOLEAN:
+        case BYTE:
+            data.position( data.position() + 1 );
+            break;
+        case SHORT:
+            data.position( data.position() + 2 );
+            break;
+        case INT:
+        case FLOAT:
+            data.position( data.position() + 4 );
+            break;
+        case LONG:
+        case DOUBLE:
+            data.position( data.position() + 8 );
+            break;
+        case STRING:
+            data.position( data.position() + data.getInt() * 2 );
+            break;
+        case LIST:
+            for ( int i = data.getInt(); i > 0; i-- )
+            {
+                skipValue( data );
+            }
+            break;
+        default:
+            throw new IllegalStateException( "Corrupt encoded configuration value, unknown tag " + tag );
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package org.thobe.config.impl;
+
+// Not thread safe: keep one instance per thread, or in a scope owned by a single thread.
+public final class CachedSetting<T>
+{
+    private final Configuration configuration;
+    private final Setting<T> setting;
+    private final boolean refreshing;
+    private long version = -1;
+    private T value;
+
+    CachedSetting( Configuration configuration, Setting<T> setting )
+    {
+        this.configuration = configuration;
+        this.setting = setting;
+        this.refreshing = refreshing( setting );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CachedSetting{" + setting.name() + '}';
+    }
+
+    public Setting<T> setting()
+    {
+        return setting;
+    }
+
+    public T get() throws SettingNotConfiguredException
+    {
+        long current = configuration.version();
+        if ( current != version )
+        {
+            T resolved = configuration.get( setting );
+            if ( refreshing )
+            {
+                return resolved;
+            }
+            value = resolved;
+            version = current;
+        }
+        return value;
+    }
+
+    // defaults that expire are only re-read through Configuration.get(), which the cache would bypass
+    private static boolean refreshing( Setting<?> setting )
+    {
+        if ( setting.isDerived() )
+        {
+            for ( Setting<?> input : setting.inputs() )
+            {
+                if ( refreshing( input ) )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return setting.defaultRefreshNanos() != 0;
+    }
+}
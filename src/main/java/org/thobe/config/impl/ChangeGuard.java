@@ -0,0 +1,7 @@
+package org.thobe.config.impl;
+
+// change listeners that cannot record every value refuse them before the configuration changes
+interface ChangeGuard
+{
+    void checkSet( String name, Object value ) throws IllegalArgumentException;
+}
@@ -0,0 +1,350 @@
+package org.thobe.config.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+public final class ChangeJournal implements ChangeListener, ChangeGuard, Closeable
+{
+    private static final String JOURNAL = "journal", SNAPSHOT = "snapshot";
+    private static final int RECORD_HEADER = 8;
+
+    public static ChangeJournal open( File directory, Configuration configuration, Setting<?>... settings )
+            throws IOException
+    {
+        return open( directory, 1 << 20, 32, configuration, settings );
+    }
+
+    // records are forced to disk once syncEvery of them are pending, compaction happens when the journal is full
+    public static ChangeJournal open( File directory, int journalBytes, int syncEvery, Configuration configuration,
+                                      Setting<?>... settings ) throws IOException
+    {
+        if ( !directory.isDirectory() && !directory.mkdirs() )
+        {
+            throw new IOException( "Cannot create journal directory " + directory );
+        }
+        ChangeJournal journal = new ChangeJournal( directory, journalBytes, syncEvery, configuration, settings );
+        journal.flusher.start();
+        configuration.addChangeListener( journal );
+        return journal;
+    }
+
+    private final File directory;
+    private final int syncEvery;
+    private final Configuration configuration;
+    private final Set<String> journaled = new HashSet<String>();
+    private final MappedByteBuffer journal;
+    private final Map<String, ConfigurationDelta.Change> state =
+            new LinkedHashMap<String, ConfigurationDelta.Change>();
+    private final CRC32 checksum = new CRC32();
+    private final Object compacting = new Object();
+    private final Thread flusher;
+    private long version;
+    private int unsynced;
+    // while full, changes are only kept in the state until a compaction has written them to a snapshot
+    private boolean full, dropped, syncRequested, compactionRequested, closed;
+    private IOException failure;
+
+    private ChangeJournal( File directory, int journalBytes, int syncEvery, Configuration configuration,
+                           Setting<?>[] settings ) throws IOException
+    {
+        this.directory = directory;
+        this.syncEvery = syncEvery;
+        this.configuration = configuration;
+        for ( Setting<?> setting : settings )
+        {
+            journaled.add( setting.name() );
+        }
+        try ( RandomAccessFile file = new RandomAccessFile( new File( directory, JOURNAL ), "rw" ) )
+        {
+            this.journal = file.getChannel().map( FileChannel.MapMode.READ_WRITE, 0,
+                                                  Math.max( journalBytes, file.length() ) );
+        }
+        recover( new ReplicationFollower( configuration, settings ) );
+        this.flusher = new Thread( "change journal flusher " + directory )
+        {
+            @Override
+            public void run()
+            {
+                flush();
+            }
+        };
+        flusher.setDaemon( true );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ChangeJournal{" + directory + " version=" + version() + '}';
+    }
+
+    public synchronized long version()
+    {
+        return version;
+    }
+
+    private void recover( ReplicationFollower replay ) throws IOException
+    {
+        File snapshot = new File( directory, SNAPSHOT );
+        if ( snapshot.exists() )
+        {
+            apply( replay, Files.readAllBytes( snapshot.toPath() ) );
+        }
+        journal.position( 0 );
+        while ( journal.remaining() >= RECORD_HEADER )
+        {
+            int start = journal.position();
+            int length = journal.getInt();
+            int crc = journal.getInt();
+            if ( length <= 0 || length > journal.remaining() )
+            {
+                journal.position( start );
+                break;
+            }
+            byte[] record = new byte[length];
+            journal.get( record );
+            checksum.reset();
+            checksum.update( record, 0, length );
+            if ( (int) checksum.getValue() != crc || !apply( replay, record ) )
+            {
+                // a torn write or a record that does not follow the recovered state ends the journal
+                journal.position( start );
+                break;
+            }
+        }
+        version = replay.version();
+        terminate();
+    }
+
+    private boolean apply( ReplicationFollower replay, byte[] message )
+    {
+        long before = replay.version();
+        if ( !replay.receive( message ) )
+        {
+            return false;
+        }
+        if ( replay.version() != before )
+        {
+            for ( ConfigurationDelta.Change change : ConfigurationDelta.decode( message ).changes )
+            {
+                state.put( change.name, change );
+            }
+        }
+        return true;
+    }
+
+    // values without a binary encoding cannot be replayed, recovery would restore the previous value
+    @Override
+    public void checkSet( String name, Object value )
+    {
+        if ( journaled.contains( name ) && !BinaryValues.isShareable( value ) )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "The value of [%s] cannot be journaled: %s", name, value ) );
+        }
+    }
+
+    // called with the configuration locked, so syncing and compaction are left to the flusher thread
+    @Override
+    public synchronized void valueSet( String name, Object value )
+    {
+        // only the given settings can be replayed
+        if ( journaled.contains( name ) )
+        {
+            append( new ConfigurationDelta.Change( name, false, value ) );
+        }
+    }
+
+    @Override
+    public synchronized void valueConfigured( String name, String value )
+    {
+        append( new ConfigurationDelta.Change( name, true, value ) );
+    }
+
+    private void append( ConfigurationDelta.Change change )
+    {
+        state.put( change.name, change );
+        version++;
+        if ( full )
+        {
+            dropped = true;
+            return;
+        }
+        byte[] record = ConfigurationDelta.encode( false, version, Collections.singletonList( change ) );
+        if ( journal.remaining() < RECORD_HEADER + record.length )
+        {
+            full = dropped = compactionRequested = true;
+            notifyAll();
+            return;
+        }
+        checksum.reset();
+        checksum.update( record, 0, record.length );
+        journal.putInt( record.length ).putInt( (int) checksum.getValue() ).put( record );
+        terminate();
+        if ( ++unsynced >= syncEvery )
+        {
+            syncRequested = true;
+            notifyAll();
+        }
+    }
+
+    private void terminate()
+    {
+        if ( journal.remaining() >= 4 )
+        {
+            journal.putInt( journal.position(), 0 );
+        }
+    }
+
+    private void flush()
+    {
+        for ( ; ; )
+        {
+            boolean compact;
+            synchronized ( this )
+            {
+                while ( !closed && !syncRequested && !compactionRequested )
+                {
+                    try
+                    {
+                        wait();
+                    }
+                    catch ( InterruptedException e )
+                    {
+                        return;
+                    }
+                }
+                if ( closed )
+                {
+                    return;
+                }
+                compact = compactionRequested;
+                syncRequested = false;
+            }
+            try
+            {
+                if ( compact )
+                {
+                    compact();
+                }
+                else
+                {
+                    sync();
+                }
+            }
+            catch ( IOException e )
+            {
+                synchronized ( this )
+                {
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    public void sync()
+    {
+        synchronized ( this )
+        {
+            if ( failure != null )
+            {
+                throw new UncheckedIOException( failure );
+            }
+            if ( unsynced == 0 )
+            {
+                return;
+            }
+            unsynced = 0;
+        }
+        journal.force();
+    }
+
+    // writes the current state as a snapshot, then keeps only the records appended while it was written
+    public void compact() throws IOException
+    {
+        synchronized ( compacting )
+        {
+            byte[] snapshot;
+            int mark;
+            synchronized ( this )
+            {
+                snapshot = ConfigurationDelta.encode( true, version, state.values() );
+                mark = journal.position();
+                dropped = compactionRequested = false;
+            }
+            File temporary = new File( directory, SNAPSHOT + ".tmp" );
+            try ( RandomAccessFile file = new RandomAccessFile( temporary, "rw" ) )
+            {
+                file.setLength( 0 );
+                file.getChannel().write( ByteBuffer.wrap( snapshot ) );
+                file.getChannel().force( true );
+            }
+            Files.move( temporary.toPath(), new File( directory, SNAPSHOT ).toPath(),
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING );
+            synchronized ( this )
+            {
+                byte[] tail = new byte[journal.position() - mark];
+                ByteBuffer source = journal.duplicate();
+                source.position( mark );
+                source.get( tail );
+                journal.position( 0 );
+                journal.put( tail );
+                terminate();
+                unsynced = 0;
+                // changes dropped while the snapshot was written are in neither, so another compaction follows
+                full = compactionRequested = dropped;
+                if ( compactionRequested )
+                {
+                    notifyAll();
+                }
+            }
+            journal.force();
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        configuration.removeChangeListener( this );
+        synchronized ( this )
+        {
+            closed = true;
+            notifyAll();
+        }
+        try
+        {
+            flusher.join();
+            boolean compact;
+            synchronized ( this )
+            {
+                compact = compactionRequested;
+            }
+            if ( compact )
+            {
+                compact();
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+        sync();
+    }
+}
@@ -0,0 +1,8 @@
+package org.thobe.config.impl;
+
+public interface ChangeListener
+{
+    void valueSet( String name, Object value );
+
+    void valueConfigured( String name, String value );
+}
@@ -0,0 +1,147 @@
+package org.thobe.config.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.thobe.config.Configurator;
+
+public final class CommandLine
+{
+    public static CommandLine of( Setting<?>... settings )
+    {
+        return new CommandLine( settings );
+    }
+
+    private final Setting<?>[] settings;
+    private final String[] names;
+    private final Setting<?>[] index;
+    private final int mask;
+
+    private CommandLine( Setting<?>[] settings )
+    {
+        this.settings = settings.clone();
+        int capacity = Integer.highestOneBit( Math.max( 2, settings.length * 2 ) - 1 ) << 1;
+        this.names = new String[capacity];
+        this.index = new Setting<?>[capacity];
+        this.mask = capacity - 1;
+        for ( Setting<?> setting : settings )
+        {
+            if ( setting.isDerived() )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The derived setting %s cannot be configured.", setting ) );
+            }
+            String name = setting.name();
+            int slot = name.hashCode() & mask;
+            while ( names[slot] != null )
+            {
+                if ( names[slot].equals( name ) )
+                {
+                    throw new IllegalArgumentException( "Duplicate option --" + name );
+                }
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            index[slot] = setting;
+        }
+    }
+
+    // returns the index of the first argument that is not an option
+    public int parse( String[] args, Configurator target ) throws IllegalArgumentException
+    {
+        int i = 0;
+        while ( i < args.length )
+        {
+            String arg = args[i];
+            if ( arg.length() < 3 || arg.charAt( 0 ) != '-' || arg.charAt( 1 ) != '-' )
+            {
+                break;
+            }
+            i++;
+            int end = arg.indexOf( '=', 2 );
+            Setting<?> setting = lookup( arg, 2, end < 0 ? arg.length() : end );
+            if ( setting == null )
+            {
+                throw new IllegalArgumentException( "Unknown option " + (end < 0 ? arg : arg.substring( 0, end )) );
+            }
+            String value;
+            if ( end >= 0 )
+            {
+                value = arg.substring( end + 1 );
+            }
+            else if ( isFlag( setting ) )
+            {
+                value = "true";
+            }
+            else if ( i < args.length )
+            {
+                value = args[i++];
+            }
+            else
+            {
+                throw new IllegalArgumentException( "Missing value for option " + arg );
+            }
+            target.configure( setting, value );
+        }
+        if ( i < args.length && "--".equals( args[i] ) )
+        {
+            i++;
+        }
+        return i;
+    }
+
+    public void usage( Appendable target ) throws IOException
+    {
+        Setting<?>[] sorted = settings.clone();
+        Arrays.sort( sorted, new Comparator<Setting<?>>()
+        {
+            @Override
+            public int compare( Setting<?> first, Setting<?> second )
+            {
+                return first.name().compareTo( second.name() );
+            }
+        } );
+        StringBuilder line = new StringBuilder();
+        for ( Setting<?> setting : sorted )
+        {
+            line.setLength( 0 );
+            line.append( "  --" ).append( setting.name() );
+            if ( !isFlag( setting ) )
+            {
+                line.append( "=<value>" );
+            }
+            int length = line.length();
+            setting.defaultValue().formatTo( line );
+            if ( line.length() == length && !isFlag( setting ) )
+            {
+                line.append( " required" );
+            }
+            target.append( line ).append( '\n' );
+        }
+    }
+
+    private Setting<?> lookup( String arg, int start, int end )
+    {
+        int hash = 0;
+        for ( int i = start; i < end; i++ )
+        {
+            hash = 31 * hash + arg.charAt( i );
+        }
+        int length = end - start;
+        for ( int slot = hash & mask; names[slot] != null; slot = (slot + 1) & mask )
+        {
+            String name = names[slot];
+            if ( name.length() == length && arg.regionMatches( start, name, 0, length ) )
+            {
+                return index[slot];
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFlag( Setting<?> setting )
+    {
+        return setting.conversion() == Setting.booleanConversion();
+    }
+}
@@ -1,9 +1,29 @@
 package org.thobe.config.impl;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.IdentityHashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
 
 import org.thobe.config.Configurator;
 import org.thobe.config.InvalidConfigurationValueException;
@@ -12,9 +32,20 @@ import org.thobe.config.Parameter;
 public class Configuration implements Configurator
 {
     private final Locale locale;
-    private final Map<String, Setting<?>> settings = new HashMap<String, Setting<?>>();
-    private final Map<Setting<?>, Object> verified = new IdentityHashMap<Setting<?>, Object>();
-    private final Map<String, UninitializedParameter> uninitialized = new HashMap<String, UninitializedParameter>();
+    private final SettingTable table = new SettingTable();
+    private final DependencyGraph dependencies = new DependencyGraph();
+    private final DependencyGraph references = new DependencyGraph();
+    private final Map<String, Interpolation> interpolations = new HashMap<String, Interpolation>();
+    private final ConcurrentMap<String, ConfigurationView> views = new ConcurrentHashMap<String, ConfigurationView>();
+    private Executor executor;
+    private ValidationPolicy validation = ValidationPolicy.EAGER;
+    private boolean interpolation;
+    private ValidationListener validationListener;
+    private volatile long version;
+    private ChangeListener[] changeListeners = {};
+    private Batch batch;
+    private final Profiles profiles;
+    private static final int VISIT_BATCH = 256;
 
     public Configuration()
     {
@@ -22,33 +53,155 @@ public class Configuration implements Configurator
     }
 
     public Configuration( Locale locale )
+    {
+        this( locale, (Executor) null );
+    }
+
+    public Configuration( Locale locale, Executor executor )
+    {
+        this( locale, executor, Profiles.NONE );
+    }
+
+    // the profiles are fixed, so conditional values are selected once when sources are configured
+    public Configuration( Profiles profiles )
+    {
+        this( Locale.getDefault(), null, profiles );
+    }
+
+    public Configuration( Locale locale, Executor executor, Profiles profiles )
     {
         this.locale = locale;
+        this.executor = executor;
+        this.profiles = profiles;
+    }
+
+    public synchronized Configuration executor( Executor executor )
+    {
+        this.executor = executor;
+        return this;
+    }
+
+    // looked up on use, so that a Configuration built ahead of time holds no threads
+    private synchronized Executor executor()
+    {
+        return executor != null ? executor : ForkJoinPool.commonPool();
+    }
+
+    public synchronized Configuration validationPolicy( ValidationPolicy validation )
+    {
+        this.validation = validation;
+        return this;
+    }
+
+    // off by default, so that values that happen to contain ${ are taken as they are
+    public synchronized Configuration interpolation( boolean enabled )
+    {
+        this.interpolation = enabled;
+        return this;
+    }
+
+    public synchronized Configuration validationListener( ValidationListener validationListener )
+    {
+        this.validationListener = validationListener;
+        return this;
+    }
+
+    public Profiles profiles()
+    {
+        return profiles;
+    }
+
+    public synchronized Configuration addChangeListener( ChangeListener listener )
+    {
+        ChangeListener[] listeners = Arrays.copyOf( changeListeners, changeListeners.length + 1 );
+        listeners[changeListeners.length] = listener;
+        changeListeners = listeners;
+        return this;
+    }
+
+    public synchronized Configuration removeChangeListener( ChangeListener listener )
+    {
+        for ( int i = 0; i < changeListeners.length; i++ )
+        {
+            if ( changeListeners[i] == listener )
+            {
+                ChangeListener[] listeners = new ChangeListener[changeListeners.length - 1];
+                System.arraycopy( changeListeners, 0, listeners, 0, i );
+                System.arraycopy( changeListeners, i + 1, listeners, i, listeners.length - i );
+                changeListeners = listeners;
+                break;
+            }
+        }
+        return this;
+    }
+
+    public ConfigurationView view( String namespace )
+    {
+        if ( namespace == null || namespace.isEmpty() )
+        {
+            throw new IllegalArgumentException( "A view requires a non-empty namespace." );
+        }
+        ConfigurationView view = views.get( namespace );
+        if ( view == null )
+        {
+            ConfigurationView created = new ConfigurationView( this, Interner.STRINGS.intern( namespace + '.' ) );
+            view = views.putIfAbsent( namespace, created );
+            if ( view == null )
+            {
+                view = created;
+            }
+        }
+        return view;
+    }
+
+    public <T> CachedSetting<T> cached( Setting<T> setting )
+    {
+        return new CachedSetting<T>( this, setting );
+    }
+
+    long version()
+    {
+        return version;
     }
 
     public synchronized <T> T get( Setting<T> setting ) throws SettingNotConfiguredException
     {
-        Object value = verified.get( setting );
+        int slot = table.slot( setting.name() );
+        Object value = table.setting( slot ) == setting ? table.value( slot ) : null;
         if ( value == null )
         {
-            settings.put( setting.name(), setting );
-            UninitializedParameter uninitializedParameter = uninitialized.remove( setting.name() );
-            if ( uninitializedParameter != null )
+            register( slot, setting );
+            if ( setting.isDerived() )
+            {
+                return derive( setting );
+            }
+            String raw = table.raw( slot );
+            if ( raw != null )
             {
                 try
                 {
-                    value = setting.parse( uninitializedParameter.value );
+                    value = setting.parse( raw );
                 }
                 catch ( InvalidConfigurationValueException invalid )
                 {
-                    uninitialized.put( setting.name(), uninitializedParameter );
-                    throw new SettingNotConfiguredWithValidValueException(
-                            setting, invalid, uninitializedParameter.parameter );
+                    throw new SettingNotConfiguredWithValidValueException( setting, invalid, table.parameter( slot ) );
                 }
-                verified.put( setting, value );
+                table.value( slot, value );
             }
         }
         if ( value == null )
+        {
+            value = setting.hasDynamicDefault() ? cachedDefault( slot, setting ) : defaultValue( setting );
+        }
+        return setting.unsafeCast( value );
+    }
+
+    private Object cachedDefault( int slot, Setting<?> setting ) throws SettingNotConfiguredException
+    {
+        long refresh = setting.defaultRefreshNanos();
+        long now = refresh == 0 ? 0 : System.nanoTime();
+        Object value = table.defaultValue( slot, now );
+        if ( value == null )
         {
             try
             {
@@ -56,24 +209,281 @@ public class Configuration implements Configurator
             }
             catch ( NoConfigurationValueException e )
             {
-                throw new SettingNotConfiguredException( setting, e );
+                // remember that there was no default, so that the provider is not asked again on every get
+                value = e;
+            }
+            table.defaultValue( slot, value, refresh == 0 ? 0 : (now + refresh) | 1 );
+            if ( refresh != 0 )
+            {
+                changed( setting.name() );
             }
         }
-        return setting.unsafeCast( value );
+        if ( value instanceof NoConfigurationValueException )
+        {
+            throw new SettingNotConfiguredException( setting, (NoConfigurationValueException) value );
+        }
+        return value;
+    }
+
+    private static Object defaultValue( Setting<?> setting ) throws SettingNotConfiguredException
+    {
+        try
+        {
+            return setting.getDefaultValue();
+        }
+        catch ( NoConfigurationValueException e )
+        {
+            throw new SettingNotConfiguredException( setting, e );
+        }
+    }
+
+    private <T> T derive( final Setting<T> setting ) throws SettingNotConfiguredException
+    {
+        final Set<String> inputs = new LinkedHashSet<String>();
+        for ( Setting<?> input : setting.inputs() )
+        {
+            inputs.add( input.name() );
+        }
+        List<String> cycle = dependencies.dependsOn( setting.name(), inputs );
+        if ( cycle != null )
+        {
+            throw new IllegalStateException( String.format(
+                    "The derived setting [%s] depends on itself through %s.", setting.name(), cycle ) );
+        }
+        T value = setting.derive( new Derivation.Inputs()
+        {
+            @Override
+            public <V> V get( Setting<V> input ) throws SettingNotConfiguredException
+            {
+                if ( !inputs.contains( input.name() ) )
+                {
+                    throw new IllegalArgumentException( String.format(
+                            "%s is not an input of the derived setting %s.", input, setting ) );
+                }
+                return Configuration.this.get( input );
+            }
+        } );
+        int slot = table.slot( setting.name() );
+        if ( table.setting( slot ) == setting )
+        {
+            table.value( slot, value );
+        }
+        return value;
+    }
+
+    public <T> CompletableFuture<T> getAsync( final Setting<T> setting )
+    {
+        final Parameter parameter;
+        final String raw;
+        final CompletableFuture<T> future;
+        synchronized ( this )
+        {
+            int slot = table.slot( setting.name() );
+            CompletableFuture<?> resolution = table.resolution( slot );
+            if ( resolution != null && table.setting( slot ) == setting )
+            {
+                return resolution( resolution );
+            }
+            register( slot, setting );
+            parameter = table.parameter( slot );
+            raw = table.value( slot ) == null ? table.raw( slot ) : null;
+            future = new CompletableFuture<T>();
+            table.resolution( slot, future );
+            if ( raw == null )
+            {
+                try
+                {
+                    future.complete( get( setting ) );
+                }
+                catch ( SettingNotConfiguredException e )
+                {
+                    future.completeExceptionally( e );
+                }
+                slot = table.find( setting.name() );
+                if ( setting.defaultRefreshNanos() != 0 && table.value( slot ) == null )
+                {
+                    // a refreshing default is not kept as a resolution, that would outlive its refresh interval
+                    table.resolution( slot, null );
+                }
+                return future;
+            }
+        }
+        executor().execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                resolve( setting, parameter, raw, future );
+            }
+        } );
+        return future;
+    }
+
+    private <T> void resolve( Setting<T> setting, Parameter parameter, String raw, CompletableFuture<T> future )
+    {
+        T value;
+        try
+        {
+            value = setting.parse( raw );
+        }
+        catch ( InvalidConfigurationValueException invalid )
+        {
+            future.completeExceptionally( new SettingNotConfiguredWithValidValueException( setting, invalid, parameter ) );
+            return;
+        }
+        catch ( RuntimeException e )
+        {
+            future.completeExceptionally( e );
+            return;
+        }
+        install( setting, parameter, raw, value );
+        future.complete( value );
+    }
+
+    private synchronized void install( Setting<?> setting, Parameter parameter, String raw, Object value )
+    {
+        int slot = table.find( setting.name() );
+        if ( slot >= 0 && table.setting( slot ) == setting && table.raw( slot ) == raw
+             && table.parameter( slot ) == parameter )
+        {
+            table.value( slot, value );
+        }
+    }
+
+    // values configured from sources are only parsed if their settings are registered or given here
+    public ValidationReport validate( int maxFailures, Setting<?>... settings )
+    {
+        final ValidationReport report = new ValidationReport( maxFailures );
+        final List<PendingValue> pending = new ArrayList<PendingValue>();
+        Executor executor;
+        synchronized ( this )
+        {
+            executor = executor();
+            for ( Setting<?> setting : settings )
+            {
+                register( table.slot( setting.name() ), setting );
+            }
+            for ( int slot = 0; slot < table.capacity(); slot++ )
+            {
+                String name = table.name( slot );
+                if ( name == null )
+                {
+                    continue;
+                }
+                Setting<?> setting = table.setting( slot );
+                if ( table.value( slot ) == null && table.raw( slot ) != null )
+                {
+                    pending.add( new PendingValue( name, setting, table.parameter( slot ), table.raw( slot ) ) );
+                }
+                else if ( setting != null && table.value( slot ) == null && !setting.isDerived()
+                          && !setting.hasDynamicDefault() )
+                {
+                    try
+                    {
+                        setting.getDefaultValue();
+                    }
+                    catch ( NoConfigurationValueException missing )
+                    {
+                        report.failed( name, setting, setting, missing );
+                    }
+                    report.checked( 1 );
+                }
+            }
+        }
+        int chunk = Math.max( 64, pending.size() / (4 * Runtime.getRuntime().availableProcessors()) + 1 );
+        List<CompletableFuture<Void>> chunks = new ArrayList<CompletableFuture<Void>>();
+        for ( int start = 0; start < pending.size(); start += chunk )
+        {
+            final List<PendingValue> work = pending.subList( start, Math.min( start + chunk, pending.size() ) );
+            chunks.add( CompletableFuture.runAsync( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    for ( PendingValue value : work )
+                    {
+                        validate( value, report );
+                    }
+                    report.checked( work.size() );
+                }
+            }, executor ) );
+        }
+        CompletableFuture.allOf( chunks.toArray( new CompletableFuture<?>[chunks.size()] ) ).join();
+        return report;
+    }
+
+    private void validate( PendingValue pending, ValidationReport report )
+    {
+        try
+        {
+            if ( pending.setting != null )
+            {
+                install( pending.setting, pending.parameter, pending.raw, pending.setting.parse( pending.raw ) );
+            }
+            else
+            {
+                pending.parameter.verify( pending.raw );
+            }
+        }
+        catch ( InvalidConfigurationValueException invalid )
+        {
+            report.failed( pending.name, pending.parameter, pending.setting, invalid );
+        }
+        catch ( RuntimeException e )
+        {
+            // a conversion that fails unexpectedly is reported like any other invalid value
+            report.failed( pending.name, pending.parameter, pending.setting,
+                           new InvalidConversionException( pending.raw, e ) );
+        }
     }
 
     public synchronized <T> void set( Setting<T> setting, T value ) throws ConflictingConfigurationException
     {
-        Setting<?> previous = settings.get( setting.name() );
+        if ( setting.isDerived() )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "The derived setting %s cannot be set.", setting ) );
+        }
+        for ( ChangeListener listener : changeListeners )
+        {
+            if ( listener instanceof ChangeGuard )
+            {
+                ((ChangeGuard) listener).checkSet( setting.name(), value );
+            }
+        }
+        try
+        {
+            Map<String, String> dependents = reexpand( setting.name(), String.valueOf( value ) );
+            assign( setting, value );
+            forgetInterpolation( setting.name() );
+            install( dependents );
+        }
+        catch ( InvalidConfigurationValueException invalid )
+        {
+            throw new IllegalArgumentException( invalid.localizeMessage( locale ), invalid );
+        }
+        for ( ChangeListener listener : changeListeners )
+        {
+            listener.valueSet( setting.name(), value );
+        }
+    }
+
+    private void assign( Setting<?> setting, Object value ) throws ConflictingConfigurationException
+    {
+        int slot = table.slot( setting.name() );
+        Setting<?> previous = table.setting( slot );
         if ( previous == null )
         {
-            settings.put( setting.name(), setting );
+            table.setting( slot, setting );
         }
         else if ( previous != setting )
         {
             throw new ConflictingConfigurationException( previous, setting );
         }
-        verified.put( setting, value );
+        table.value( slot, value );
+        table.raw( slot, null, null );
+        table.resolution( slot, null );
+        changed( setting.name() );
     }
 
     @Override
@@ -81,23 +491,50 @@ public class Configuration implements Configurator
     {
         try
         {
-            Setting<?> setting;
-            if ( parameter instanceof Setting<?> )
+            String name = parameter.name(), expanded = value;
+            Set<String> inputs = null;
+            if ( interpolates( value ) )
+            {
+                inputs = Interpolation.references( value );
+                List<String> cycle = references.cycle( name, inputs );
+                if ( cycle != null )
+                {
+                    throw new IllegalArgumentException( String.format(
+                            "The value of [%s] refers to itself through %s.", name, cycle ) );
+                }
+                expanded = expand( name, value, Collections.<String, String>emptyMap() );
+            }
+            // dependents are checked before anything changes, so a rejected value leaves no trace
+            Map<String, String> dependents = reexpand( name, expanded );
+            if ( batch != null )
+            {
+                batch.remember( name );
+                for ( String dependent : dependents.keySet() )
+                {
+                    batch.remember( dependent );
+                }
+            }
+            apply( parameter, expanded );
+            if ( inputs == null )
             {
-                setting = (Setting<?>) parameter;
+                forgetInterpolation( name );
             }
             else
             {
-                setting = settings.get( parameter.name() );
+                references.dependsOn( name, inputs );
+                interpolations.put( name, new Interpolation( parameter, value ) );
             }
-            if ( setting != null )
+            install( dependents );
+            if ( batch != null )
             {
-                setFromString( setting, value );
+                batch.configured( name, value );
             }
             else
             {
-                parameter.verify( value );
-                uninitialized.put( parameter.name(), new UninitializedParameter( parameter, value ) );
+                for ( ChangeListener listener : changeListeners )
+                {
+                    listener.valueConfigured( name, value );
+                }
             }
         }
         catch ( InvalidConfigurationValueException invalid )
@@ -110,21 +547,690 @@ public class Configuration implements Configurator
         }
     }
 
-    private <T> void setFromString( Setting<T> setting, String value )
+    private Setting<?> settingFor( Parameter parameter )
+    {
+        if ( parameter instanceof Setting<?> )
+        {
+            return (Setting<?>) parameter;
+        }
+        int slot = table.find( parameter.name() );
+        return slot < 0 ? null : table.setting( slot );
+    }
+
+    private void apply( Parameter parameter, String value )
+            throws InvalidConfigurationValueException, ConflictingConfigurationException
+    {
+        Setting<?> setting = settingFor( parameter );
+        if ( setting != null && setting.isDerived() )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "The derived setting %s cannot be configured.", setting ) );
+        }
+        switch ( validation )
+        {
+        case EAGER:
+            if ( setting != null )
+            {
+                setFromString( parameter, setting, value );
+            }
+            else
+            {
+                parameter.verify( value );
+                defer( parameter, null, value );
+            }
+            break;
+        case LAZY:
+            defer( parameter, setting, value );
+            break;
+        case BACKGROUND:
+            defer( parameter, setting, value );
+            validateInBackground( parameter, setting, value );
+            break;
+        }
+    }
+
+    // a value is interpolated if it contains a ${name} reference or an escaped $${
+    static boolean interpolated( String value )
+    {
+        return value.indexOf( "${" ) >= 0;
+    }
+
+    synchronized boolean interpolates( String value )
+    {
+        return interpolation && interpolated( value );
+    }
+
+    static Set<String> references( String value )
+    {
+        return Interpolation.references( value );
+    }
+
+    // orders names so that values referred to by other values in the same batch are configured first
+    static List<String> referenceOrder( Map<String, String> values )
+    {
+        List<String> order = new ArrayList<String>( values.size() );
+        Set<String> visited = new HashSet<String>();
+        for ( String name : values.keySet() )
+        {
+            referenceOrder( name, values, visited, order );
+        }
+        return order;
+    }
+
+    private static void referenceOrder( String name, Map<String, String> values, Set<String> visited,
+                                        List<String> order )
+    {
+        if ( visited.add( name ) )
+        {
+            String value = values.get( name );
+            if ( interpolated( value ) )
+            {
+                for ( String input : Interpolation.references( value ) )
+                {
+                    if ( values.containsKey( input ) )
+                    {
+                        referenceOrder( input, values, visited, order );
+                    }
+                }
+            }
+            order.add( name );
+        }
+    }
+
+    synchronized boolean hasValue( String name )
+    {
+        return referencedValue( name, Collections.<String, String>emptyMap() ) != null;
+    }
+
+    private void forgetInterpolation( String name )
+    {
+        if ( interpolations.remove( name ) != null )
+        {
+            references.remove( name );
+        }
+    }
+
+    private String expand( String name, String template, Map<String, String> pending )
+    {
+        StringBuilder expanded = new StringBuilder( template.length() + 32 );
+        int position = 0;
+        for ( int start; (start = template.indexOf( '$', position )) >= 0; )
+        {
+            expanded.append( template, position, start );
+            if ( template.startsWith( "$${", start ) )
+            {
+                expanded.append( "${" );
+                position = start + 3;
+            }
+            else if ( template.startsWith( "${", start ) )
+            {
+                int end = template.indexOf( '}', start );
+                String reference = template.substring( start + 2, end );
+                String value = referencedValue( reference, pending );
+                if ( value == null )
+                {
+                    throw new IllegalArgumentException( String.format(
+                            "The value of [%s] refers to [%s], which has no value.", name, reference ) );
+                }
+                expanded.append( value );
+                position = end + 1;
+            }
+            else
+            {
+                expanded.append( '$' );
+                position = start + 1;
+            }
+        }
+        return expanded.append( template, position, template.length() ).toString();
+    }
+
+    // configured values are referred to by the string they were configured with, other values by their string form
+    private String referencedValue( String name, Map<String, String> pending )
+    {
+        String value = pending.get( name );
+        if ( value == null )
+        {
+            value = configuredValue( name );
+        }
+        if ( value == null )
+        {
+            int slot = table.find( name );
+            Setting<?> setting = slot < 0 ? null : table.setting( slot );
+            if ( setting != null && !setting.isDerived() )
+            {
+                Object stored = table.value( slot );
+                if ( stored == null && table.raw( slot ) == null )
+                {
+                    // a registered setting without a value refers to its default
+                    try
+                    {
+                        stored = get( setting );
+                    }
+                    catch ( SettingNotConfiguredException e )
+                    {
+                        stored = null;
+                    }
+                }
+                value = stored == null ? null : String.valueOf( stored );
+            }
+        }
+        return value;
+    }
+
+    // the string a value was configured with is kept in its slot until the value is set
+    private String configuredValue( String name )
+    {
+        int slot = table.find( name );
+        return slot < 0 ? null : table.raw( slot );
+    }
+
+    // expands and checks the values that refer to the changed name, inputs before the values that use them
+    private Map<String, String> reexpand( String name, String value ) throws InvalidConfigurationValueException
+    {
+        Set<String> remaining = references.dependentsOf( name );
+        if ( remaining.isEmpty() )
+        {
+            return Collections.emptyMap();
+        }
+        remaining = new LinkedHashSet<String>( remaining );
+        Map<String, String> pending = new HashMap<String, String>();
+        pending.put( name, value );
+        Map<String, String> changed = new LinkedHashMap<String, String>();
+        while ( !remaining.isEmpty() )
+        {
+            for ( Iterator<String> candidates = remaining.iterator(); candidates.hasNext(); )
+            {
+                String dependent = candidates.next();
+                if ( Collections.disjoint( references.dependencies( dependent ), remaining ) )
+                {
+                    candidates.remove();
+                    Interpolation interpolation = interpolations.get( dependent );
+                    String expanded = expand( dependent, interpolation.template, pending );
+                    pending.put( dependent, expanded );
+                    if ( !expanded.equals( configuredValue( dependent ) ) )
+                    {
+                        check( interpolation.parameter, expanded );
+                        changed.put( dependent, expanded );
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void check( Parameter parameter, String value ) throws InvalidConfigurationValueException
+    {
+        if ( validation == ValidationPolicy.EAGER )
+        {
+            Setting<?> setting = settingFor( parameter );
+            if ( setting != null )
+            {
+                setting.parse( value );
+            }
+            else
+            {
+                parameter.verify( value );
+            }
+        }
+    }
+
+    private void install( Map<String, String> dependents ) throws InvalidConfigurationValueException
+    {
+        for ( Map.Entry<String, String> dependent : dependents.entrySet() )
+        {
+            try
+            {
+                apply( interpolations.get( dependent.getKey() ).parameter, dependent.getValue() );
+            }
+            catch ( ConflictingConfigurationException conflict )
+            {
+                throw new IllegalStateException( "Settings of interpolated values cannot change.", conflict );
+            }
+        }
+    }
+
+    public synchronized MergedSources configure( ConfigurationSource... sources ) throws IllegalArgumentException
+    {
+        MergedSources merged = MergedSources.merge( profiles, sources );
+        configureAll( merged );
+        return merged;
+    }
+
+    // if any value is rejected the values configured before it are rolled back, listeners only hear of a success
+    synchronized void configureAll( MergedSources merged ) throws IllegalArgumentException
+    {
+        if ( batch != null )
+        {
+            merged.configureEach( this );
+            return;
+        }
+        Batch batch = this.batch = new Batch();
+        try
+        {
+            merged.configureEach( this );
+        }
+        catch ( RuntimeException e )
+        {
+            batch.rollBack();
+            throw e;
+        }
+        finally
+        {
+            this.batch = null;
+        }
+        for ( int i = 0; i < batch.configured.size(); i += 2 )
+        {
+            for ( ChangeListener listener : changeListeners )
+            {
+                listener.valueConfigured( batch.configured.get( i ), batch.configured.get( i + 1 ) );
+            }
+        }
+    }
+
+    private void defer( Parameter parameter, Setting<?> setting, String value ) throws ConflictingConfigurationException
+    {
+        int slot = table.slot( parameter.name() );
+        if ( setting != null )
+        {
+            Setting<?> previous = table.setting( slot );
+            if ( previous == null )
+            {
+                table.setting( slot, setting );
+            }
+            else if ( previous != setting )
+            {
+                throw new ConflictingConfigurationException( previous, setting );
+            }
+        }
+        table.value( slot, null );
+        table.raw( slot, parameter, Interner.STRINGS.intern( value ) );
+        table.resolution( slot, null );
+        changed( parameter.name() );
+    }
+
+    private void register( int slot, Setting<?> setting )
+    {
+        Setting<?> previous = table.setting( slot );
+        if ( previous != setting )
+        {
+            if ( previous != null && !previous.isDerived() && table.value( slot ) != null )
+            {
+                ConflictingConfigurationException conflict = new ConflictingConfigurationException( previous, setting );
+                throw new IllegalArgumentException( conflict.localizedMessage( locale ), conflict );
+            }
+            table.setting( slot, setting );
+            table.value( slot, null );
+            table.resolution( slot, null );
+            table.defaultValue( slot, null, 0 );
+            if ( previous != null )
+            {
+                // another setting for the same name can have another default or parse the raw value differently
+                changed( setting.name() );
+            }
+        }
+    }
+
+    // only changes of stored values, raw strings and refreshed defaults invalidate cached settings
+    private void changed( String name )
+    {
+        version++;
+        for ( String dependent : dependencies.dependentsOf( name ) )
+        {
+            int slot = table.find( dependent );
+            if ( slot >= 0 )
+            {
+                table.value( slot, null );
+                table.resolution( slot, null );
+            }
+        }
+    }
+
+    private void validateInBackground( final Parameter parameter, Setting<?> setting, final String value )
+    {
+        final ValidationListener listener = validationListener;
+        if ( setting != null )
+        {
+            getAsync( setting ).whenComplete( new BiConsumer<Object, Throwable>()
+            {
+                @Override
+                public void accept( Object ignored, Throwable failure )
+                {
+                    if ( listener != null && failure != null
+                         && failure.getCause() instanceof InvalidConfigurationValueException )
+                    {
+                        listener.invalidValue( parameter, (InvalidConfigurationValueException) failure.getCause() );
+                    }
+                }
+            } );
+        }
+        else
+        {
+            executor().execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        parameter.verify( value );
+                    }
+                    catch ( InvalidConfigurationValueException invalid )
+                    {
+                        if ( listener != null )
+                        {
+                            listener.invalidValue( parameter, invalid );
+                        }
+                    }
+                }
+            } );
+        }
+    }
+
+    private void setFromString( Parameter parameter, Setting<?> setting, String value )
             throws InvalidConfigurationValueException, ConflictingConfigurationException
     {
-        set( setting, setting.parse( value ) );
+        assign( setting, setting.parse( value ) );
+        table.raw( table.slot( setting.name() ), parameter, Interner.STRINGS.intern( value ) );
     }
 
-    private static class UninitializedParameter
+    public void exportTo( Writer target ) throws IOException
+    {
+        visit( ConfigurationSnapshot.writer( target ) );
+        target.flush();
+    }
+
+    public void exportTo( OutputStream target ) throws IOException
+    {
+        exportTo( new BufferedWriter( new OutputStreamWriter( target, StandardCharsets.UTF_8 ) ) );
+    }
+
+    // resolves the given settings and everything configured so far, leaving no parsing for later reads
+    public synchronized Configuration resolve( Setting<?>... settings ) throws SettingNotConfiguredException
+    {
+        for ( Setting<?> setting : settings )
+        {
+            get( setting );
+        }
+        List<Setting<?>> pending = new ArrayList<Setting<?>>();
+        for ( int slot = 0; slot < table.capacity(); slot++ )
+        {
+            if ( table.setting( slot ) != null && table.value( slot ) == null && table.raw( slot ) != null )
+            {
+                pending.add( table.setting( slot ) );
+            }
+        }
+        for ( Setting<?> setting : pending )
+        {
+            get( setting );
+        }
+        for ( int slot = 0; slot < table.capacity(); slot++ )
+        {
+            Setting<?> setting = table.setting( slot );
+            if ( setting != null && setting.hasDynamicDefault() )
+            {
+                // provided defaults describe the host they run on, and expiry times the clock they were taken from,
+                // so neither they nor the values derived from them are kept
+                table.defaultValue( slot, null, 0 );
+                table.resolution( slot, null );
+                changed( setting.name() );
+            }
+        }
+        return this;
+    }
+
+    synchronized Setting<?> registered( String name )
+    {
+        int slot = table.find( name );
+        return slot < 0 ? null : table.setting( slot );
+    }
+
+    // values configured for names without a setting cannot be resolved, and are refused rather than left out
+    synchronized Map<String, Object> resolvedValues( Setting<?>... resolve ) throws SettingNotConfiguredException
+    {
+        for ( Setting<?> setting : resolve )
+        {
+            register( table.slot( setting.name() ), setting );
+        }
+        List<Setting<?>> settings = new ArrayList<Setting<?>>( table.size() );
+        for ( int slot = 0; slot < table.capacity(); slot++ )
+        {
+            Setting<?> setting = table.setting( slot );
+            if ( setting != null )
+            {
+                settings.add( setting );
+            }
+            else if ( table.raw( slot ) != null )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "No setting was given to resolve the configured value of [%s].", table.name( slot ) ) );
+            }
+        }
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        for ( Setting<?> setting : settings )
+        {
+            try
+            {
+                values.put( setting.name(), get( setting ) );
+            }
+            catch ( SettingNotConfiguredWithValidValueException invalid )
+            {
+                // leaving it out would make readers silently fall back to the default
+                throw invalid;
+            }
+            catch ( SettingNotConfiguredException e )
+            {
+                // nothing to resolve
+            }
+        }
+        return values;
+    }
+
+    // the state is copied a batch of names at a time with the configuration locked, the visitor runs without the lock
+    void visit( ConfigurationSnapshot.Visitor visitor ) throws IOException
+    {
+        final List<Object> batch = new ArrayList<Object>( 3 * VISIT_BATCH );
+        ConfigurationSnapshot.Visitor copy = new ConfigurationSnapshot.Visitor()
+        {
+            @Override
+            public void visit( String name, ConfigurationSnapshot.State state, String value )
+            {
+                batch.add( name );
+                batch.add( state );
+                batch.add( value );
+            }
+        };
+        for ( int next = 0, end; ; next = end )
+        {
+            synchronized ( this )
+            {
+                end = Math.min( next + VISIT_BATCH, table.size() );
+                visitNames( next, end, copy );
+            }
+            if ( end == next )
+            {
+                return;
+            }
+            for ( int i = 0; i < batch.size(); i += 3 )
+            {
+                visitor.visit( (String) batch.get( i ), (ConfigurationSnapshot.State) batch.get( i + 1 ),
+                               (String) batch.get( i + 2 ) );
+            }
+            batch.clear();
+        }
+    }
+
+    // names are visited in the order they were added, which stays valid while the lock is released between batches
+    private void visitNames( int from, int to, ConfigurationSnapshot.Visitor visitor ) throws IOException
+    {
+        long now = System.nanoTime();
+        for ( int index = from; index < to; index++ )
+        {
+            String name = table.added( index );
+            int slot = table.find( name );
+            Setting<?> setting = table.setting( slot );
+            Object value = table.value( slot );
+            if ( value != null )
+            {
+                visitor.visit( name, setting.isDerived() ? ConfigurationSnapshot.State.DERIVED
+                                                         : ConfigurationSnapshot.State.VERIFIED,
+                               String.valueOf( value ) );
+            }
+            else if ( table.raw( slot ) != null )
+            {
+                visitor.visit( name, ConfigurationSnapshot.State.PENDING, table.raw( slot ) );
+            }
+            else if ( setting != null && !setting.isDerived() )
+            {
+                if ( setting.hasDynamicDefault() )
+                {
+                    value = table.defaultValue( slot, now );
+                    if ( value instanceof NoConfigurationValueException )
+                    {
+                        value = null;
+                    }
+                }
+                else
+                {
+                    try
+                    {
+                        value = setting.getDefaultValue();
+                    }
+                    catch ( NoConfigurationValueException e )
+                    {
+                        value = null;
+                    }
+                }
+                if ( value != null )
+                {
+                    visitor.visit( name, ConfigurationSnapshot.State.DEFAULT, String.valueOf( value ) );
+                }
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> resolution( CompletableFuture<?> resolution )
+    {
+        return (CompletableFuture<T>) resolution;
+    }
+
+    private static class PendingValue
+    {
+        final String name;
+        final Setting<?> setting;
+        final Parameter parameter;
+        final String raw;
+
+        PendingValue( String name, Setting<?> setting, Parameter parameter, String raw )
+        {
+            this.name = name;
+            this.setting = setting;
+            this.parameter = parameter;
+            this.raw = raw;
+        }
+    }
+
+    // the state of each name before a bulk configuration first changed it
+    private final class Batch
+    {
+        final List<String> configured = new ArrayList<String>();
+        private final Map<String, PreviousState> previous = new LinkedHashMap<String, PreviousState>();
+
+        void remember( String name )
+        {
+            if ( !previous.containsKey( name ) )
+            {
+                PreviousState state = new PreviousState();
+                int slot = table.find( name );
+                if ( slot >= 0 )
+                {
+                    state.setting = table.setting( slot );
+                    state.parameter = table.parameter( slot );
+                    state.raw = table.raw( slot );
+                    state.value = table.value( slot );
+                }
+                state.interpolation = interpolations.get( name );
+                if ( state.interpolation != null )
+                {
+                    state.references = new LinkedHashSet<String>( references.dependencies( name ) );
+                }
+                previous.put( name, state );
+            }
+        }
+
+        void configured( String name, String value )
+        {
+            configured.add( name );
+            configured.add( value );
+        }
+
+        void rollBack()
+        {
+            for ( Map.Entry<String, PreviousState> entry : previous.entrySet() )
+            {
+                String name = entry.getKey();
+                PreviousState state = entry.getValue();
+                int slot = table.slot( name );
+                table.setting( slot, state.setting );
+                table.raw( slot, state.parameter, state.raw );
+                table.value( slot, state.value );
+                table.resolution( slot, null );
+                forgetInterpolation( name );
+                if ( state.interpolation != null )
+                {
+                    references.dependsOn( name, state.references );
+                    interpolations.put( name, state.interpolation );
+                }
+                changed( name );
+            }
+        }
+    }
+
+    private static class PreviousState
+    {
+        Setting<?> setting;
+        Parameter parameter;
+        String raw;
+        Object value;
+        Interpolation interpolation;
+        Set<String> references;
+    }
+
+    private static final class Interpolation
     {
         final Parameter parameter;
-        final String value;
+        final String template;
 
-        UninitializedParameter( Parameter parameter, String value )
+        Interpolation( Parameter parameter, String template )
         {
             this.parameter = parameter;
-            this.value = value;
+            this.template = template;
+        }
+
+        static Set<String> references( String template )
+        {
+            Set<String> names = new LinkedHashSet<String>();
+            for ( int start = template.indexOf( '$' ); start >= 0; )
+            {
+                if ( template.startsWith( "$${", start ) )
+                {
+                    start = template.indexOf( '$', start + 3 );
+                    continue;
+                }
+                if ( template.startsWith( "${", start ) )
+                {
+                    int end = template.indexOf( '}', start );
+                    if ( end < 0 || end == start + 2 )
+                    {
+                        throw new IllegalArgumentException( String.format(
+                                "Malformed reference at index %d of %s.", start, template ) );
+                    }
+                    names.add( Interner.STRINGS.intern( template.substring( start + 2, end ) ) );
+                    start = end;
+                }
+                start = template.indexOf( '$', start + 1 );
+            }
+            return names;
         }
     }
 }
@@ -0,0 +1,86 @@
+package org.thobe.config.impl;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+
+final class ConfigurationDelta
+{
+    private static final byte DELTA = 0, SNAPSHOT = 1;
+    private static final byte SET = 0, CONFIGURED = 1;
+
+    static final class Change
+    {
+        final String name;
+        final boolean configured;
+        final Object value;
+
+        Change( String name, boolean configured, Object value )
+        {
+            this.name = name;
+            this.configured = configured;
+            this.value = value;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + (configured ? " configured to " : " set to ") + value;
+        }
+    }
+
+    final boolean snapshot;
+    final long version;
+    final Change[] changes;
+
+    private ConfigurationDelta( boolean snapshot, long version, Change[] changes )
+    {
+        this.snapshot = snapshot;
+        this.version = version;
+        this.changes = changes;
+    }
+
+    static byte[] encode( boolean snapshot, long version, Collection<Change> changes )
+    {
+        ByteBuffer data = ByteBuffer.allocate( 256 );
+        data.put( snapshot ? SNAPSHOT : DELTA ).putLong( version ).putInt( changes.size() );
+        for ( Change change : changes )
+        {
+            data = BinaryValues.putString( data, change.name );
+            data = BinaryValues.ensure( data, 1 );
+            if ( change.configured )
+            {
+                data.put( CONFIGURED );
+                data = BinaryValues.putString( data, (String) change.value );
+            }
+            else
+            {
+                data.put( SET );
+                data = BinaryValues.putValue( data, change.value );
+            }
+        }
+        byte[] message = new byte[data.position()];
+        data.flip();
+        data.get( message );
+        return message;
+    }
+
+    static ConfigurationDelta decode( byte[] message )
+    {
+        ByteBuffer data = ByteBuffer.wrap( message );
+        byte kind = data.get();
+        if ( kind != DELTA && kind != SNAPSHOT )
+        {
+            throw new IllegalArgumentException( "Not a configuration delta." );
+        }
+        long version = data.getLong();
+        Change[] changes = new Change[data.getInt()];
+        for ( int i = 0; i < changes.length; i++ )
+        {
+            String name = Interner.STRINGS.intern( BinaryValues.getString( data ) );
+            boolean configured = data.get() == CONFIGURED;
+            changes[i] = new Change( name, configured, configured ? BinaryValues.getString( data )
+                                                                  : BinaryValues.getValue( data ) );
+        }
+        return new ConfigurationDelta( kind == SNAPSHOT, version, changes );
+    }
+}
@@ -0,0 +1,270 @@
+package org.thobe.config.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ConfigurationSnapshot
+{
+    public enum State
+    {
+        VERIFIED,
+        PENDING,
+        DERIVED,
+        DEFAULT
+    }
+
+    public static ConfigurationSnapshot of( Configuration configuration )
+    {
+        final Map<String, Entry> entries = new HashMap<String, Entry>();
+        try
+        {
+            configuration.visit( new Visitor()
+            {
+                @Override
+                public void visit( String name, State state, String value )
+                {
+                    entries.put( name, new Entry( name, state, value ) );
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( "Collecting entries in memory does not perform I/O.", e );
+        }
+        return new ConfigurationSnapshot( entries );
+    }
+
+    public static ConfigurationSnapshot read( Reader source ) throws IOException
+    {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader( source );
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        StringBuilder buffer = new StringBuilder();
+        int lineNumber = 0;
+        for ( String line; (line = reader.readLine()) != null; )
+        {
+            lineNumber++;
+            if ( line.length() == 0 || line.charAt( 0 ) == '#' )
+            {
+                continue;
+            }
+            int first = line.indexOf( '\t' ), second = first < 0 ? -1 : line.indexOf( '\t', first + 1 );
+            if ( second < 0 )
+            {
+                throw new IOException( String.format( "Malformed snapshot entry on line %d: %s", lineNumber, line ) );
+            }
+            State state;
+            try
+            {
+                state = State.valueOf( line.substring( 0, first ).toUpperCase() );
+            }
+            catch ( IllegalArgumentException e )
+            {
+                throw new IOException( String.format( "Unknown state on line %d: %s", lineNumber, line ), e );
+            }
+            String name = unescape( line, first + 1, second, buffer );
+            entries.put( name, new Entry( name, state, unescape( line, second + 1, line.length(), buffer ) ) );
+        }
+        return new ConfigurationSnapshot( entries );
+    }
+
+    public static List<Difference> diff( Configuration left, Configuration right )
+    {
+        return diff( of( left ), of( right ) );
+    }
+
+    public static List<Difference> diff( ConfigurationSnapshot left, ConfigurationSnapshot right )
+    {
+        List<Difference> differences = new ArrayList<Difference>();
+        for ( Entry before : left.entries.values() )
+        {
+            Entry after = right.entries.get( before.name );
+            if ( after == null || !before.value.equals( after.value ) )
+            {
+                differences.add( new Difference( before.name, before, after ) );
+            }
+        }
+        for ( Entry after : right.entries.values() )
+        {
+            if ( !left.entries.containsKey( after.name ) )
+            {
+                differences.add( new Difference( after.name, null, after ) );
+            }
+        }
+        return differences;
+    }
+
+    private final Map<String, Entry> entries;
+
+    private ConfigurationSnapshot( Map<String, Entry> entries )
+    {
+        this.entries = entries;
+    }
+
+    public Entry get( String name )
+    {
+        return entries.get( name );
+    }
+
+    public Collection<Entry> entries()
+    {
+        return Collections.unmodifiableCollection( entries.values() );
+    }
+
+    public static final class Entry
+    {
+        private final String name;
+        private final State state;
+        private final String value;
+
+        Entry( String name, State state, String value )
+        {
+            this.name = name;
+            this.state = state;
+            this.value = value;
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public State state()
+        {
+            return state;
+        }
+
+        public String value()
+        {
+            return value;
+        }
+
+        @Override
+        public String toString()
+        {
+            return name + "=" + value + " (" + state.name().toLowerCase() + ")";
+        }
+    }
+
+    public static final class Difference
+    {
+        private final String name;
+        private final Entry left, right;
+
+        Difference( String name, Entry left, Entry right )
+        {
+            this.name = name;
+            this.left = left;
+            this.right = right;
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public Entry left()
+        {
+            return left;
+        }
+
+        public Entry right()
+        {
+            return right;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Difference{" + name + ": " + left + " -> " + right + '}';
+        }
+    }
+
+    interface Visitor
+    {
+        void visit( String name, State state, String value ) throws IOException;
+    }
+
+    static Visitor writer( final Appendable target )
+    {
+        return new Visitor()
+        {
+            @Override
+            public void visit( String name, State state, String value ) throws IOException
+            {
+                target.append( state.name().toLowerCase() ).append( '\t' );
+                escape( name, target );
+                target.append( '\t' );
+                escape( value, target );
+                target.append( '\n' );
+            }
+        };
+    }
+
+    static void escape( String value, Appendable target ) throws IOException
+    {
+        int start = 0;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            char escaped;
+            switch ( c )
+            {
+            case '\\':
+                escaped = '\\';
+                break;
+            case '\t':
+                escaped = 't';
+                break;
+            case '\n':
+                escaped = 'n';
+                break;
+            case '\r':
+                escaped = 'r';
+                break;
+            default:
+                continue;
+            }
+            target.append( value, start, i ).append( '\\' ).append( escaped );
+            start = i + 1;
+        }
+        target.append( value, start, value.length() );
+    }
+
+    static String unescape( String line, int start, int end, StringBuilder buffer )
+    {
+        int escape = line.indexOf( '\\', start );
+        if ( escape < 0 || escape >= end )
+        {
+            return line.substring( start, end );
+        }
+        buffer.setLength( 0 );
+        for ( int i = start; i < end; i++ )
+        {
+            char c = line.charAt( i );
+            if ( c == '\\' && i + 1 < end )
+            {
+                switch ( c = line.charAt( ++i ) )
+                {
+                case 't':
+                    c = '\t';
+                    break;
+                case 'n':
+                    c = '\n';
+                    break;
+                case 'r':
+                    c = '\r';
+                    break;
+                }
+            }
+            buffer.append( c );
+        }
+        return buffer.toString();
+    }
+}
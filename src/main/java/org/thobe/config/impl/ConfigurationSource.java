@@ -0,0 +1,298 @@
+package org.thobe.config.impl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.thobe.config.Parameter;
+
+public abstract class ConfigurationSource
+{
+    public static ConfigurationSource environmentVariables( String prefix )
+    {
+        return new EnvironmentVariables( prefix, null ).lowerCase();
+    }
+
+    public static ConfigurationSource systemProperties( String prefix )
+    {
+        return new SystemProperties( prefix, null );
+    }
+
+    public static ConfigurationSource propertiesFile( File file )
+    {
+        return new PropertiesFile( file );
+    }
+
+    public static ConfigurationSource values( String description, Map<String, String> values )
+    {
+        return new Values( description, values );
+    }
+
+    static ConfigurationSource environmentVariables( String prefix, Map<String, String> environment )
+    {
+        return new EnvironmentVariables( prefix, environment ).lowerCase();
+    }
+
+    static ConfigurationSource systemProperties( String prefix, Properties properties )
+    {
+        return new SystemProperties( prefix, properties );
+    }
+
+    public synchronized ConfigurationSource lowerCase()
+    {
+        this.lowerCase = true;
+        this.entries = null;
+        return this;
+    }
+
+    public synchronized ConfigurationSource replace( char separator, char replacement )
+    {
+        this.separator = separator;
+        this.replacement = replacement;
+        this.entries = null;
+        return this;
+    }
+
+    private final String prefix;
+    private boolean lowerCase;
+    private char separator, replacement;
+    private volatile Map<String, Entry> entries;
+
+    private ConfigurationSource( String prefix )
+    {
+        this.prefix = prefix == null ? "" : prefix;
+    }
+
+    final Collection<Entry> entries()
+    {
+        Map<String, Entry> entries = this.entries;
+        if ( entries == null )
+        {
+            synchronized ( this )
+            {
+                entries = this.entries;
+                if ( entries == null )
+                {
+                    this.entries = entries = load();
+                }
+            }
+        }
+        return entries.values();
+    }
+
+    public synchronized void refresh()
+    {
+        entries = null;
+    }
+
+    abstract void read( Map<String, Entry> target );
+
+    abstract String describe( String key );
+
+    final void add( Map<String, Entry> target, String key, String value )
+    {
+        if ( key.length() <= prefix.length() || !key.startsWith( prefix ) )
+        {
+            return;
+        }
+        String name = normalize( key );
+        target.put( name, new Entry( this, name, key, Interner.STRINGS.intern( value ) ) );
+    }
+
+    private Map<String, Entry> load()
+    {
+        Map<String, Entry> entries = new HashMap<String, Entry>();
+        read( entries );
+        return Collections.unmodifiableMap( entries );
+    }
+
+    private String normalize( String key )
+    {
+        char[] name = new char[key.length() - prefix.length()];
+        key.getChars( prefix.length(), key.length(), name, 0 );
+        for ( int i = 0; i < name.length; i++ )
+        {
+            char c = name[i];
+            if ( separator != 0 && c == separator )
+            {
+                c = replacement;
+            }
+            else if ( lowerCase )
+            {
+                c = Character.toLowerCase( c );
+            }
+            name[i] = c;
+        }
+        return Interner.STRINGS.intern( new String( name ) );
+    }
+
+    static final class Entry implements Parameter
+    {
+        private final ConfigurationSource source;
+        private final String name;
+        private final String key;
+        final String value;
+
+        Entry( ConfigurationSource source, String name, String key, String value )
+        {
+            this.source = source;
+            this.name = name;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public String name()
+        {
+            return name;
+        }
+
+        @Override
+        public void verify( String value )
+        {
+            // the source knows nothing about the values it supplies
+        }
+
+        ConfigurationSource source()
+        {
+            return source;
+        }
+
+        Entry unconditional( char separator )
+        {
+            return new Entry( source, Interner.STRINGS.intern( name.substring( name.indexOf( separator ) + 1 ) ), key,
+                              value );
+        }
+
+        @Override
+        public String toString()
+        {
+            return source.describe( key );
+        }
+    }
+
+    private static class EnvironmentVariables extends ConfigurationSource
+    {
+        private final Map<String, String> environment;
+
+        EnvironmentVariables( String prefix, Map<String, String> environment )
+        {
+            super( prefix );
+            this.environment = environment;
+        }
+
+        @Override
+        void read( Map<String, Entry> target )
+        {
+            for ( Map.Entry<String, String> variable :
+                    (environment == null ? System.getenv() : environment).entrySet() )
+            {
+                add( target, variable.getKey(), variable.getValue() );
+            }
+        }
+
+        @Override
+        String describe( String key )
+        {
+            return "environment variable " + key;
+        }
+    }
+
+    private static class SystemProperties extends ConfigurationSource
+    {
+        private final Properties properties;
+
+        SystemProperties( String prefix, Properties properties )
+        {
+            super( prefix );
+            this.properties = properties;
+        }
+
+        @Override
+        void read( Map<String, Entry> target )
+        {
+            Properties properties = this.properties == null ? System.getProperties() : this.properties;
+            for ( String key : properties.stringPropertyNames() )
+            {
+                add( target, key, properties.getProperty( key ) );
+            }
+        }
+
+        @Override
+        String describe( String key )
+        {
+            return "system property " + key;
+        }
+    }
+
+    private static class PropertiesFile extends ConfigurationSource
+    {
+        private final File file;
+
+        PropertiesFile( File file )
+        {
+            super( null );
+            this.file = file;
+        }
+
+        @Override
+        void read( Map<String, Entry> target )
+        {
+            Properties properties = new Properties();
+            try ( Reader reader = new InputStreamReader( new FileInputStream( file ), StandardCharsets.UTF_8 ) )
+            {
+                properties.load( reader );
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalArgumentException( "Cannot read configuration file " + file, e );
+            }
+            for ( String key : properties.stringPropertyNames() )
+            {
+                add( target, key, properties.getProperty( key ) );
+            }
+        }
+
+        @Override
+        String describe( String key )
+        {
+            return "property " + key + " in " + file;
+        }
+    }
+
+    private static class Values extends ConfigurationSource
+    {
+        private final String description;
+        private final Map<String, String> values;
+
+        Values( String description, Map<String, String> values )
+        {
+            super( null );
+            this.description = description;
+            this.values = values;
+        }
+
+        @Override
+        void read( Map<String, Entry> target )
+        {
+            for ( Map.Entry<String, String> value : values.entrySet() )
+            {
+                add( target, value.getKey(), value.getValue() );
+            }
+        }
+
+        @Override
+        String describe( String key )
+        {
+            return description + " " + key;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.thobe.config.Configurator;
+import org.thobe.config.InvalidConfigurationValueException;
+import org.thobe.config.Parameter;
+
+public final class ConfigurationView implements Configurator
+{
+    private final Configuration configuration;
+    private final String prefix;
+    private final ConcurrentMap<Setting<?>, Setting<?>> scoped = new ConcurrentHashMap<Setting<?>, Setting<?>>();
+
+    ConfigurationView( Configuration configuration, String prefix )
+    {
+        this.configuration = configuration;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConfigurationView{" + prefix + '}';
+    }
+
+    public String prefix()
+    {
+        return prefix;
+    }
+
+    public ConfigurationView view( String namespace )
+    {
+        return configuration.view( prefix + namespace );
+    }
+
+    public <T> T get( Setting<T> setting ) throws SettingNotConfiguredException
+    {
+        return configuration.get( scoped( setting ) );
+    }
+
+    public <T> CachedSetting<T> cached( Setting<T> setting )
+    {
+        return configuration.cached( scoped( setting ) );
+    }
+
+    public <T> CompletableFuture<T> getAsync( Setting<T> setting )
+    {
+        return configuration.getAsync( scoped( setting ) );
+    }
+
+    public <T> void set( Setting<T> setting, T value ) throws ConflictingConfigurationException
+    {
+        configuration.set( scoped( setting ), value );
+    }
+
+    @Override
+    public void configure( final Parameter parameter, String value ) throws IllegalArgumentException
+    {
+        if ( parameter instanceof Setting<?> )
+        {
+            configuration.configure( scoped( (Setting<?>) parameter ), value );
+        }
+        else
+        {
+            final String name = prefix + parameter.name();
+            configuration.configure( new Parameter()
+            {
+                @Override
+                public String name()
+                {
+                    return name;
+                }
+
+                @Override
+                public void verify( String value ) throws InvalidConfigurationValueException
+                {
+                    parameter.verify( value );
+                }
+
+                @Override
+                public String toString()
+                {
+                    return parameter.toString();
+                }
+            }, value );
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> Setting<T> scoped( Setting<T> setting )
+    {
+        Setting<?> result = scoped.get( setting );
+        if ( result == null )
+        {
+            Setting<?> created = rename( setting );
+            result = scoped.putIfAbsent( setting, created );
+            if ( result == null )
+            {
+                result = created;
+            }
+        }
+        return (Setting<T>) result;
+    }
+
+    private <T> Setting<T> rename( final Setting<T> setting )
+    {
+        String name = prefix + setting.name();
+        if ( !setting.isDerived() )
+        {
+            return setting.renamed( name, null, null );
+        }
+        Setting<?>[] inputs = setting.inputs().clone();
+        for ( int i = 0; i < inputs.length; i++ )
+        {
+            inputs[i] = scoped( inputs[i] );
+        }
+        return setting.renamed( name, new Derivation<T>()
+        {
+            @Override
+            public T derive( final Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return setting.derive( new Inputs()
+                {
+                    @Override
+                    public <V> V get( Setting<V> input ) throws SettingNotConfiguredException
+                    {
+                        return inputs.get( scoped( input ) );
+                    }
+                } );
+            }
+        }, inputs );
+    }
+}
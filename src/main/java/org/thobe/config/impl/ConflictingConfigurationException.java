@@ -2,15 +2,17 @@ package org.thobe.config.impl;
 
 import java.util.Locale;
 
+import org.thobe.config.LocalizedMessages;
+
 public class ConflictingConfigurationException extends Exception
 {
+    private static final String MESSAGE = "Attempted to configure [%s] by %s, but it is already configured by %s.";
     private final Setting<?> configured;
     private final Setting<?> attempted;
 
     public ConflictingConfigurationException( Setting<?> configured, Setting<?> attempted )
     {
-        super( String.format( "Attempted to configure [%s] by %s, but it is already configured by %s.",
-                              configured.name(), attempted, configured ) );
+        super( String.format( MESSAGE, configured.name(), attempted, configured ) );
         this.configured = configured;
         this.attempted = attempted;
     }
@@ -27,6 +29,6 @@ public class ConflictingConfigurationException extends Exception
 
     public String localizedMessage( Locale locale )
     {
-        return getMessage();
+        return LocalizedMessages.format( locale, getClass(), MESSAGE, configured.name(), attempted, configured );
     }
 }
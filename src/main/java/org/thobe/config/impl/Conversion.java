@@ -1,5 +1,7 @@
 package org.thobe.config.impl;
 
+import java.util.Arrays;
+
 import org.thobe.config.InvalidConfigurationValueException;
 
 public interface Conversion<SOURCE, TARGET>
@@ -11,10 +13,10 @@ public interface Conversion<SOURCE, TARGET>
         @SuppressWarnings("unchecked")
         public static <T> Conversion<T, T> noConversion()
         {
-            return NONE;
+            return (Conversion<T, T>) NONE;
         }
 
-        private static final NoConversion NONE = new NoConversion();
+        private static final NoConversion<Object> NONE = new NoConversion<Object>();
 
         @Override
         public T convert( T value )
@@ -31,19 +33,36 @@ public interface Conversion<SOURCE, TARGET>
             return new Combined<SOURCE, INTERMEDIATE, TARGET>( first, other );
         }
 
-        private final Conversion<SOURCE, INTERMEDIATE> first;
-        private final Conversion<? super INTERMEDIATE, TARGET> other;
+        // the stages are only type safe as a chain, each one is applied to what the previous one returned
+        private final Conversion<Object, Object>[] stages;
 
         private Combined( Conversion<SOURCE, INTERMEDIATE> first, Conversion<? super INTERMEDIATE, TARGET> other )
         {
-            this.first = first;
-            this.other = other;
+            Conversion<Object, Object>[] head = stages( first ), tail = stages( other );
+            this.stages = Arrays.copyOf( head, head.length + tail.length );
+            System.arraycopy( tail, 0, stages, head.length, tail.length );
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Conversion<Object, Object>[] stages( Conversion<?, ?> conversion )
+        {
+            if ( conversion instanceof Combined<?, ?, ?> )
+            {
+                return ((Combined<?, ?, ?>) conversion).stages;
+            }
+            return (Conversion<Object, Object>[]) new Conversion<?, ?>[]{conversion};
         }
 
         @Override
+        @SuppressWarnings("unchecked")
         public TARGET convert( SOURCE value ) throws InvalidConfigurationValueException
         {
-            return other.convert( first.convert( value ) );
+            Object result = value;
+            for ( Conversion<Object, Object> stage : stages )
+            {
+                result = stage.convert( result );
+            }
+            return (TARGET) result;
         }
     }
 }
@@ -0,0 +1,48 @@
+package org.thobe.config.impl;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+public final class DataSizeSetting
+{
+    public static DataSizeSetting readDataSize()
+    {
+        return new DataSizeSetting();
+    }
+
+    // unlike the numeric limits, which exclude the limit itself, quantities are limited inclusively
+    public DataSizeSetting atLeast( String lowerLimit )
+    {
+        this.lowerLimit = limit( lowerLimit );
+        return this;
+    }
+
+    public DataSizeSetting atMost( String upperLimit )
+    {
+        this.upperLimit = limit( upperLimit );
+        return this;
+    }
+
+    public Conversion<String, Long> asBytes()
+    {
+        return new Units.Quantity( Units.DATA_SIZE, lowerLimit, upperLimit, 1 );
+    }
+
+    private long lowerLimit = 0, upperLimit = Long.MAX_VALUE;
+
+    private DataSizeSetting()
+    {
+        // use the factory method
+    }
+
+    private static long limit( String limit )
+    {
+        try
+        {
+            return Units.DATA_SIZE.parse( limit );
+        }
+        catch ( InvalidConfigurationValueException e )
+        {
+            throw new IllegalArgumentException( e.getMessage(), e );
+        }
+    }
+}
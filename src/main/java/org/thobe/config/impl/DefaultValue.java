@@ -45,6 +45,53 @@ abstract class DefaultValue<T>
         return defaultValue( listOf( result ) );
     }
 
+    static <T> DefaultValue<T> provided( final DefaultValueProvider<T> provider, final long refreshNanos )
+    {
+        return new DefaultValue<T>()
+        {
+            @Override
+            T get( Setting<T> setting ) throws NoConfigurationException
+            {
+                T value = provider.provideDefault();
+                if ( value == null )
+                {
+                    throw new NoConfigurationException( setting );
+                }
+                return value;
+            }
+
+            @Override
+            boolean isDynamic()
+            {
+                return true;
+            }
+
+            @Override
+            long refreshNanos()
+            {
+                return refreshNanos;
+            }
+
+            @Override
+            Object provider()
+            {
+                return provider;
+            }
+
+            @Override
+            void formatTo( StringBuilder repr )
+            {
+                repr.append( " defaultValue=<provided by " ).append( provider ).append( '>' );
+            }
+
+            @Override
+            public String toString()
+            {
+                return "<DefaultValue provided by " + provider + '>';
+            }
+        };
+    }
+
     @SuppressWarnings("unchecked")
     static <T> DefaultValue<T> noDefaultValue()
     {
@@ -53,6 +100,21 @@ abstract class DefaultValue<T>
 
     abstract void formatTo( StringBuilder repr );
 
+    boolean isDynamic()
+    {
+        return false;
+    }
+
+    long refreshNanos()
+    {
+        return 0;
+    }
+
+    Object provider()
+    {
+        return null;
+    }
+
     private static final DefaultValue NONE = new DefaultValue()
     {
         @Override
@@ -0,0 +1,6 @@
+package org.thobe.config.impl;
+
+public interface DefaultValueProvider<T>
+{
+    T provideDefault();
+}
@@ -0,0 +1,140 @@
+package org.thobe.config.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+final class DependencyGraph
+{
+    private final Map<String, Set<String>> dependencies = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+
+    // returns the cycle the new edges would close, leaving the graph unchanged, or null if there is none
+    List<String> dependsOn( String dependent, Set<String> inputs )
+    {
+        List<String> cycle = cycle( dependent, inputs );
+        if ( cycle != null )
+        {
+            return cycle;
+        }
+        remove( dependent );
+        if ( !inputs.isEmpty() )
+        {
+            dependencies.put( dependent, new LinkedHashSet<String>( inputs ) );
+            for ( String input : inputs )
+            {
+                Set<String> users = dependents.get( input );
+                if ( users == null )
+                {
+                    dependents.put( input, users = new LinkedHashSet<String>() );
+                }
+                users.add( dependent );
+            }
+        }
+        return null;
+    }
+
+    List<String> cycle( String dependent, Set<String> inputs )
+    {
+        for ( String input : inputs )
+        {
+            List<String> path = path( input, dependent );
+            if ( path != null )
+            {
+                path.add( 0, dependent );
+                return path;
+            }
+        }
+        return null;
+    }
+
+    void remove( String dependent )
+    {
+        Set<String> previous = dependencies.remove( dependent );
+        if ( previous != null )
+        {
+            for ( String input : previous )
+            {
+                Set<String> users = dependents.get( input );
+                users.remove( dependent );
+                if ( users.isEmpty() )
+                {
+                    dependents.remove( input );
+                }
+            }
+        }
+    }
+
+    Set<String> dependencies( String dependent )
+    {
+        Set<String> inputs = dependencies.get( dependent );
+        return inputs == null ? Collections.<String>emptySet() : Collections.unmodifiableSet( inputs );
+    }
+
+    Set<String> dependentsOf( String name )
+    {
+        if ( !dependents.containsKey( name ) )
+        {
+            return Collections.emptySet();
+        }
+        Set<String> result = new LinkedHashSet<String>();
+        Deque<String> queue = new ArrayDeque<String>();
+        queue.add( name );
+        while ( !queue.isEmpty() )
+        {
+            Set<String> users = dependents.get( queue.poll() );
+            if ( users != null )
+            {
+                for ( String user : users )
+                {
+                    if ( result.add( user ) )
+                    {
+                        queue.add( user );
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<String> path( String from, String to )
+    {
+        if ( from.equals( to ) )
+        {
+            List<String> path = new ArrayList<String>();
+            path.add( to );
+            return path;
+        }
+        Set<String> visited = new HashSet<String>();
+        Deque<List<String>> stack = new ArrayDeque<List<String>>();
+        stack.push( Collections.singletonList( from ) );
+        while ( !stack.isEmpty() )
+        {
+            List<String> path = stack.pop();
+            String last = path.get( path.size() - 1 );
+            Set<String> next = dependencies.get( last );
+            if ( next == null || !visited.add( last ) )
+            {
+                continue;
+            }
+            for ( String input : next )
+            {
+                List<String> extended = new ArrayList<String>( path );
+                extended.add( input );
+                if ( input.equals( to ) )
+                {
+                    return extended;
+                }
+                stack.push( extended );
+            }
+        }
+        return null;
+    }
+}
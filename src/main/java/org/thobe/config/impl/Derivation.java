@@ -0,0 +1,11 @@
+package org.thobe.config.impl;
+
+public interface Derivation<T>
+{
+    T derive( Inputs inputs ) throws SettingNotConfiguredException;
+
+    interface Inputs
+    {
+        <V> V get( Setting<V> input ) throws SettingNotConfiguredException;
+    }
+}
@@ -0,0 +1,60 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+public final class DurationSetting
+{
+    public static DurationSetting readDuration()
+    {
+        return new DurationSetting();
+    }
+
+    // unlike the numeric limits, which exclude the limit itself, quantities are limited inclusively
+    public DurationSetting atLeast( String lowerLimit )
+    {
+        this.lowerLimit = limit( lowerLimit );
+        return this;
+    }
+
+    public DurationSetting atMost( String upperLimit )
+    {
+        this.upperLimit = limit( upperLimit );
+        return this;
+    }
+
+    public Conversion<String, Long> asNanos()
+    {
+        return as( TimeUnit.NANOSECONDS );
+    }
+
+    public Conversion<String, Long> asMillis()
+    {
+        return as( TimeUnit.MILLISECONDS );
+    }
+
+    public Conversion<String, Long> as( TimeUnit unit )
+    {
+        return new Units.Quantity( Units.DURATION, lowerLimit, upperLimit, unit.toNanos( 1 ) );
+    }
+
+    private long lowerLimit = 0, upperLimit = Long.MAX_VALUE;
+
+    private DurationSetting()
+    {
+        // use the factory method
+    }
+
+    private static long limit( String limit )
+    {
+        try
+        {
+            return Units.DURATION.parse( limit );
+        }
+        catch ( InvalidConfigurationValueException e )
+        {
+            throw new IllegalArgumentException( e.getMessage(), e );
+        }
+    }
+}
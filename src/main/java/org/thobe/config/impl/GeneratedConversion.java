@@ -0,0 +1,34 @@
+package org.thobe.config.impl;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+public abstract class GeneratedConversion<T> implements Conversion<String, T>
+{
+    protected static long integer( String value, long lower, long upper, Number reportedLower,
+                                   Number reportedUpper ) throws InvalidConfigurationValueException
+    {
+        long result = NumericSetting.parseLong( value );
+        if ( result < lower || result > upper )
+        {
+            throw new InvalidRangeException( result, reportedLower, reportedUpper );
+        }
+        return result;
+    }
+
+    // a null reported limit means that side is unlimited
+    protected static double floating( String value, double lower, double upper, Number reportedLower,
+                                      Number reportedUpper ) throws InvalidConfigurationValueException
+    {
+        double result = NumericSetting.parseDouble( value );
+        if ( (reportedLower != null && !(result > lower)) || (reportedUpper != null && !(result < upper)) )
+        {
+            throw new InvalidRangeException( result, reportedLower, reportedUpper );
+        }
+        return result;
+    }
+
+    protected static boolean bool( String value ) throws InvalidConfigurationValueException
+    {
+        return Setting.booleanConversion().convert( value );
+    }
+}
@@ -0,0 +1,14 @@
+package org.thobe.config.impl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// processed by SettingProcessor, which generates a class of Setting constants for the annotated interface
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GeneratedSettings
+{
+    String className() default "";
+}
@@ -0,0 +1,44 @@
+package org.thobe.config.impl;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+final class Interner
+{
+    static final Interner STRINGS = new Interner( 32 );
+
+    private final Map<String, WeakReference<String>>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    Interner( int concurrency )
+    {
+        int size = Integer.highestOneBit( Math.max( 1, concurrency - 1 ) << 1 );
+        stripes = (Map<String, WeakReference<String>>[]) new Map<?, ?>[size];
+        for ( int i = 0; i < size; i++ )
+        {
+            stripes[i] = new WeakHashMap<String, WeakReference<String>>();
+        }
+    }
+
+    String intern( String value )
+    {
+        if ( value == null )
+        {
+            return null;
+        }
+        int hash = value.hashCode();
+        Map<String, WeakReference<String>> stripe = stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+        synchronized ( stripe )
+        {
+            WeakReference<String> reference = stripe.get( value );
+            String canonical = reference == null ? null : reference.get();
+            if ( canonical == null )
+            {
+                stripe.put( value, new WeakReference<String>( value ) );
+                canonical = value;
+            }
+            return canonical;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.thobe.config.impl;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+class InvalidConversionException extends InvalidConfigurationValueException
+{
+    private final String value;
+
+    InvalidConversionException( String value, RuntimeException cause )
+    {
+        super( cause, "[%s] could not be converted: %s", value, cause );
+        this.value = value;
+    }
+
+    @Override
+    public String value()
+    {
+        return value;
+    }
+}
@@ -0,0 +1,35 @@
+package org.thobe.config.impl;
+
+import java.util.Locale;
+
+import org.thobe.config.InvalidConfigurationValueException;
+import org.thobe.config.LocalizedMessages;
+
+class InvalidQuantityException extends InvalidConfigurationValueException
+{
+    private static final String MESSAGE = "[%s] is not a valid %s, expected a number followed by one of %s.";
+    private final String value, id, kind, units;
+
+    InvalidQuantityException( String value, String id, String kind, String units )
+    {
+        super( MESSAGE, value, kind, units );
+        this.value = value;
+        this.id = id;
+        this.kind = kind;
+        this.units = units;
+    }
+
+    // the kind of quantity is translated along with the message, under its own key
+    @Override
+    public String localizeMessage( Locale locale )
+    {
+        return LocalizedMessages.format( locale, getClass(), MESSAGE, value,
+                                         LocalizedMessages.term( locale, getClass(), id, kind ), units );
+    }
+
+    @Override
+    public String value()
+    {
+        return value;
+    }
+}
@@ -28,4 +28,14 @@ public class InvalidRangeException extends InvalidConfigurationValueException
     {
         return value.toString();
     }
+
+    public Number lowerLimit()
+    {
+        return lowerLimit;
+    }
+
+    public Number upperLimit()
+    {
+        return upperLimit;
+    }
 }
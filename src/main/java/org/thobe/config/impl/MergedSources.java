@@ -0,0 +1,163 @@
+package org.thobe.config.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.thobe.config.Configurator;
+import org.thobe.config.Parameter;
+
+public final class MergedSources
+{
+    public static MergedSources merge( ConfigurationSource... sources )
+    {
+        return merge( Profiles.NONE, sources );
+    }
+
+    // within a source, values for active profiles (profile:name) override plain values, and later profiles win,
+    // values for inactive profiles are left out, and names without a known profile prefix are taken as they are
+    public static MergedSources merge( final Profiles profiles, ConfigurationSource... sources )
+    {
+        Map<String, ConfigurationSource.Entry> winners = new HashMap<String, ConfigurationSource.Entry>();
+        Map<String, List<Parameter>> overridden = new HashMap<String, List<Parameter>>();
+        List<ConfigurationSource.Entry> conditional = new ArrayList<ConfigurationSource.Entry>();
+        for ( ConfigurationSource source : sources )
+        {
+            for ( ConfigurationSource.Entry entry : source.entries() )
+            {
+                int separator = entry.name().indexOf( PROFILE_SEPARATOR );
+                String profile = separator < 0 ? null : entry.name().substring( 0, separator );
+                if ( profile == null || !profiles.isKnown( profile ) )
+                {
+                    select( winners, overridden, entry );
+                }
+                else if ( profiles.rank( profile ) >= 0 )
+                {
+                    conditional.add( entry );
+                }
+            }
+            if ( !conditional.isEmpty() )
+            {
+                Collections.sort( conditional, new Comparator<ConfigurationSource.Entry>()
+                {
+                    @Override
+                    public int compare( ConfigurationSource.Entry first, ConfigurationSource.Entry second )
+                    {
+                        return profiles.rank( profile( first ) ) - profiles.rank( profile( second ) );
+                    }
+                } );
+                for ( ConfigurationSource.Entry entry : conditional )
+                {
+                    select( winners, overridden, entry.unconditional( PROFILE_SEPARATOR ) );
+                }
+                conditional.clear();
+            }
+        }
+        return new MergedSources( winners, overridden );
+    }
+
+    private static final char PROFILE_SEPARATOR = ':';
+
+    private static String profile( ConfigurationSource.Entry entry )
+    {
+        return entry.name().substring( 0, entry.name().indexOf( PROFILE_SEPARATOR ) );
+    }
+
+    private static void select( Map<String, ConfigurationSource.Entry> winners, Map<String, List<Parameter>> overridden,
+                                ConfigurationSource.Entry entry )
+    {
+        ConfigurationSource.Entry previous = winners.put( entry.name(), entry );
+        if ( previous != null )
+        {
+            List<Parameter> losers = overridden.get( entry.name() );
+            if ( losers == null )
+            {
+                overridden.put( entry.name(), losers = new ArrayList<Parameter>( 2 ) );
+            }
+            losers.add( previous );
+        }
+    }
+
+    private final Map<String, ConfigurationSource.Entry> winners;
+    private final Map<String, List<Parameter>> overridden;
+
+    private MergedSources( Map<String, ConfigurationSource.Entry> winners, Map<String, List<Parameter>> overridden )
+    {
+        this.winners = winners;
+        this.overridden = overridden;
+    }
+
+    public Set<String> names()
+    {
+        return Collections.unmodifiableSet( winners.keySet() );
+    }
+
+    public String value( String name )
+    {
+        ConfigurationSource.Entry winner = winners.get( name );
+        return winner == null ? null : winner.value;
+    }
+
+    public Parameter winner( String name )
+    {
+        return winners.get( name );
+    }
+
+    public List<Parameter> overridden( String name )
+    {
+        List<Parameter> losers = overridden.get( name );
+        return losers == null ? Collections.<Parameter>emptyList() : Collections.unmodifiableList( losers );
+    }
+
+    public String explain( String name )
+    {
+        ConfigurationSource.Entry winner = winners.get( name );
+        if ( winner == null )
+        {
+            return name + " is not configured by any source";
+        }
+        StringBuilder explanation = new StringBuilder( name ).append( '=' ).append( winner.value )
+                                                            .append( " from " ).append( winner );
+        List<Parameter> losers = overridden.get( name );
+        if ( losers != null )
+        {
+            explanation.append( ", overriding " );
+            for ( int i = losers.size() - 1; i >= 0; i-- )
+            {
+                explanation.append( losers.get( i ) ).append( i == 0 ? "" : ", " );
+            }
+        }
+        return explanation.toString();
+    }
+
+    // a Configuration takes all the values or, if any of them is rejected, none of them
+    public void configure( Configurator target ) throws IllegalArgumentException
+    {
+        if ( target instanceof Configuration )
+        {
+            ((Configuration) target).configureAll( this );
+        }
+        else
+        {
+            configureEach( target );
+        }
+    }
+
+    void configureEach( Configurator target ) throws IllegalArgumentException
+    {
+        Map<String, String> values = new HashMap<String, String>( winners.size() * 2 );
+        for ( ConfigurationSource.Entry entry : winners.values() )
+        {
+            values.put( entry.name(), entry.value );
+        }
+        for ( String name : Configuration.referenceOrder( values ) )
+        {
+            ConfigurationSource.Entry entry = winners.get( name );
+            target.configure( entry, entry.value );
+        }
+    }
+}
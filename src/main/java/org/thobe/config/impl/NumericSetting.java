@@ -2,8 +2,6 @@ package org.thobe.config.impl;
 
 import org.thobe.config.InvalidConfigurationValueException;
 
-import static org.thobe.config.impl.NumericSetting.Comparison.*;
-
 public abstract class NumericSetting
 {
     public static NumericSetting readInteger()
@@ -42,32 +40,32 @@ public abstract class NumericSetting
 
     public Conversion<String, Byte> asByte()
     {
-        return conversion( BYTE_VALUE );
+        return conversion( Narrowing.BYTE );
     }
 
     public Conversion<String, Short> asShort()
     {
-        return conversion( SHORT_VALUE );
+        return conversion( Narrowing.SHORT );
     }
 
     public Conversion<String, Integer> asInteger()
     {
-        return conversion( INT_VALUE );
+        return conversion( Narrowing.INT );
     }
 
     public Conversion<String, Long> asLong()
     {
-        return conversion( LONG_VALUE );
+        return conversion( Narrowing.LONG );
     }
 
     public Conversion<String, Float> asFloat()
     {
-        return conversion( FLOAT_VALUE );
+        return conversion( Narrowing.FLOAT );
     }
 
     public Conversion<String, Double> asDouble()
     {
-        return conversion( DOUBLE_VALUE );
+        return conversion( Narrowing.DOUBLE );
     }
 
     private Number lowerLimit, upperLimit;
@@ -77,382 +75,288 @@ public abstract class NumericSetting
         // limited subclasses
     }
 
-    private <T> Conversion<String, T> conversion( Conversion<Number, T> conversion )
+    private <T> Conversion<String, T> conversion( Narrowing target )
     {
-        return Conversion.Combined.conversion( reader(), conversion );
+        return new Fused<T>( floatingPoint(), lowerLimit, upperLimit, target );
     }
 
-    abstract Conversion<String, ? extends Number> reader();
-
-    <N extends Number> Conversion<String, N> limited( Conversion<String, N> reader )
-    {
-        if ( lowerLimit != null && upperLimit != null )
-        {
-            return new DualLimit<N>( lowerLimit, upperLimit, reader );
-        }
-        else if ( lowerLimit != null )
-        {
-            return new LowerLimit<N>( lowerLimit, reader );
-        }
-        else if ( upperLimit != null )
-        {
-            return new UpperLimit<N>( upperLimit, reader );
-        }
-        else
-        {
-            return reader;
-        }
-    }
+    abstract boolean floatingPoint();
 
     private static class LongSetting extends NumericSetting
     {
         @Override
-        Conversion<String, Long> reader()
+        boolean floatingPoint()
         {
-            return limited( READER );
+            return false;
         }
+    }
 
+    private static class DoubleSetting extends NumericSetting
+    {
         @Override
-        public Conversion<String, Long> asLong()
+        boolean floatingPoint()
         {
-            return reader();
+            return true;
         }
-
-        private static Conversion<String, Long> READER = new Conversion<String, Long>()
-        {
-            @Override
-            public Long convert( String value ) throws InvalidConfigurationValueException
-            {
-                value = value.trim();
-                int radix = 10;
-                if ( value.charAt( 0 ) == '0' )
-                {
-                    switch ( value.charAt( 1 ) )
-                    {
-                    case 'x':
-                    case 'X':
-                        radix = 16;
-                        value = value.substring( 2 );
-                        break;
-                    case 'o':
-                    case 'O':
-                        radix = 8;
-                        value = value.substring( 2 );
-                        break;
-                    case 'b':
-                    case 'B':
-                        radix = 2;
-                        value = value.substring( 2 );
-                        break;
-                    }
-                }
-                try
-                {
-                    return Long.parseLong( value, radix );
-                }
-                catch ( NumberFormatException exception )
-                {
-                    throw new InvalidNumberException( value, exception );
-                }
-            }
-        };
     }
 
-    private static class DoubleSetting extends NumericSetting
+    static long parseLong( String value ) throws InvalidNumberException
     {
-        @Override
-        Conversion<String, Double> reader()
+        int start = 0, end = value.length();
+        while ( start < end && value.charAt( start ) <= ' ' )
         {
-            return limited( READER );
+            start++;
         }
-
-        @Override
-        public Conversion<String, Double> asDouble()
+        while ( end > start && value.charAt( end - 1 ) <= ' ' )
         {
-            return reader();
+            end--;
         }
-
-        private static Conversion<String, Double> READER = new Conversion<String, Double>()
+        int radix = 10;
+        if ( end - start > 1 && value.charAt( start ) == '0' )
         {
-            @Override
-            public Double convert( String value ) throws InvalidConfigurationValueException
+            switch ( value.charAt( start + 1 ) )
             {
-                return Double.parseDouble( value.trim() );
+            case 'x':
+            case 'X':
+                radix = 16;
+                start += 2;
+                break;
+            case 'o':
+            case 'O':
+                radix = 8;
+                start += 2;
+                break;
+            case 'b':
+            case 'B':
+                radix = 2;
+                start += 2;
+                break;
             }
-        };
-    }
-
-    private static <T extends Number> T verified( Number value, T tentative ) throws InvalidRangeException
-    {
-        if ( value instanceof Double )
+        }
+        boolean negative = false;
+        long limit = -Long.MAX_VALUE;
+        int pos = start;
+        if ( pos < end )
         {
-            if ( value.doubleValue() != tentative.doubleValue() )
+            char first = value.charAt( pos );
+            if ( first == '-' )
             {
-                throw invalidRange( value, tentative.getClass() );
+                negative = true;
+                limit = Long.MIN_VALUE;
+                pos++;
             }
+            else if ( first == '+' )
+            {
+                pos++;
+            }
+        }
+        if ( pos == end )
+        {
+            throw invalidNumber( value, start, end );
         }
-        else if ( value instanceof Long )
+        long multiplicationLimit = limit / radix;
+        long result = 0;
+        for ( ; pos < end; pos++ )
         {
-            if ( value.longValue() != tentative.longValue() )
+            int digit = Character.digit( value.charAt( pos ), radix );
+            if ( digit < 0 || result < multiplicationLimit )
             {
-                throw invalidRange( value, tentative.getClass() );
+                throw invalidNumber( value, start, end );
             }
+            result *= radix;
+            if ( result < limit + digit )
+            {
+                throw invalidNumber( value, start, end );
+            }
+            result -= digit;
         }
-        return tentative;
+        return negative ? result : -result;
     }
 
-    private static InvalidRangeException invalidRange( Number value, Class<? extends Number> numberType )
+    static double parseDouble( String value ) throws InvalidNumberException
     {
-        Number min_value, max_value;
-        try
-        {
-            min_value = (Number) numberType.getField( "MIN_VALUE" ).get( null );
-        }
-        catch ( Exception e )
-        {
-            min_value = null;
-        }
         try
         {
-            max_value = (Number) numberType.getField( "MAX_VALUE" ).get( null );
+            return Double.parseDouble( value );
         }
-        catch ( Exception e )
+        catch ( NumberFormatException exception )
         {
-            max_value = null;
+            throw new InvalidNumberException( value.trim(), exception );
         }
-        return new InvalidRangeException( value, min_value, max_value );
     }
 
-    private static final Conversion<Number, Byte> BYTE_VALUE = new Conversion<Number, Byte>()
+    private static InvalidNumberException invalidNumber( String value, int start, int end )
     {
-        @Override
-        public Byte convert( Number value ) throws InvalidConfigurationValueException
-        {
-            return verified( value, value.byteValue() );
-        }
-    };
+        String digits = value.substring( start, end );
+        return new InvalidNumberException( digits,
+                                           new NumberFormatException( "For input string: \"" + digits + "\"" ) );
+    }
 
-    private static final Conversion<Number, Short> SHORT_VALUE = new Conversion<Number, Short>()
+    enum Narrowing
     {
-        @Override
-        public Short convert( Number value ) throws InvalidConfigurationValueException
-        {
-            return verified( value, value.shortValue() );
-        }
-    };
+        BYTE( Byte.MIN_VALUE, Byte.MAX_VALUE ),
+        SHORT( Short.MIN_VALUE, Short.MAX_VALUE ),
+        INT( Integer.MIN_VALUE, Integer.MAX_VALUE ),
+        LONG( Long.MIN_VALUE, Long.MAX_VALUE ),
+        FLOAT( null, null ),
+        DOUBLE( null, null );
 
-    private static final Conversion<Number, Integer> INT_VALUE = new Conversion<Number, Integer>()
-    {
-        @Override
-        public Integer convert( Number value ) throws InvalidConfigurationValueException
-        {
-            return verified( value, value.intValue() );
-        }
-    };
+        final Number min, max;
 
-    private static final Conversion<Number, Long> LONG_VALUE = new Conversion<Number, Long>()
-    {
-        @Override
-        public Long convert( Number value ) throws InvalidConfigurationValueException
+        Narrowing( Number min, Number max )
         {
-            long result = value.longValue();
-            if ( value instanceof Double || value instanceof Float )
-            {
-                double floatingPoint = value.doubleValue();
-                if ( floatingPoint < Long.MIN_VALUE || floatingPoint > Long.MAX_VALUE )
-                {
-                    throw new InvalidRangeException( value, Long.MIN_VALUE, Long.MAX_VALUE );
-                }
-            }
-            return result;
+            this.min = min;
+            this.max = max;
         }
-    };
+    }
 
-    private static final Conversion<Number, Float> FLOAT_VALUE = new Conversion<Number, Float>()
+    static final class Fused<T> implements Conversion<String, T>
     {
-        @Override
-        public Float convert( Number value ) throws InvalidConfigurationValueException
+        private final boolean floatingPoint;
+        private final Number lowerLimit, upperLimit;
+        private final Narrowing target;
+        private final boolean hasLower, hasUpper;
+        private final boolean floatingLower, floatingUpper;
+        private final long longLower, longUpper;
+        private final double doubleLower, doubleUpper;
+        private final Number lowerBound, upperBound;
+
+        Fused( boolean floatingPoint, Number lowerLimit, Number upperLimit, Narrowing target )
         {
-            return value.floatValue();
+            this.floatingPoint = floatingPoint;
+            this.lowerLimit = lowerLimit;
+            this.upperLimit = upperLimit;
+            this.target = target;
+            this.hasLower = lowerLimit != null;
+            this.hasUpper = upperLimit != null;
+            this.floatingLower = isFloatingPoint( lowerLimit );
+            this.floatingUpper = isFloatingPoint( upperLimit );
+            this.longLower = hasLower ? lowerLimit.longValue() : 0;
+            this.longUpper = hasUpper ? upperLimit.longValue() : 0;
+            this.doubleLower = hasLower ? lowerLimit.doubleValue() : 0;
+            this.doubleUpper = hasUpper ? upperLimit.doubleValue() : 0;
+            this.lowerBound = hasLower ? lowerLimit : target.min;
+            this.upperBound = hasUpper ? upperLimit : target.max;
         }
-    };
 
-    private static final Conversion<Number, Double> DOUBLE_VALUE = new Conversion<Number, Double>()
-    {
-        @Override
-        public Double convert( Number value ) throws InvalidConfigurationValueException
+        boolean floatingPoint()
         {
-            return value.doubleValue();
+            return floatingPoint;
         }
-    };
 
-    private static class DualLimit<N extends Number> implements Conversion<String, N>
-    {
-        private final Number lowerLimit;
-        private final Number upperLimit;
-        private final Conversion<String, N> reader;
-
-        public DualLimit( Number lowerLimit, Number upperLimit, Conversion<String, N> reader )
+        Narrowing target()
         {
-            this.lowerLimit = lowerLimit;
-            this.upperLimit = upperLimit;
-            this.reader = reader;
+            return target;
         }
 
-        @Override
-        public N convert( String value ) throws InvalidConfigurationValueException
+        Number lowerLimit()
         {
-            N number = reader.convert( value );
-            if ( verify( number, GREATER_THAN, lowerLimit ) && verify( number, LESS_THAN, upperLimit ) )
-            {
-                return number;
-            }
-            else
-            {
-                throw new InvalidRangeException( number, lowerLimit, upperLimit );
-            }
+            return lowerLimit;
         }
-    }
 
-    private static class UpperLimit<N extends Number> implements Conversion<String, N>
-    {
-        private final Number upperLimit;
-        private final Conversion<String, N> reader;
-
-        public UpperLimit( Number upperLimit, Conversion<String, N> reader )
+        Number upperLimit()
         {
-            this.upperLimit = upperLimit;
-            this.reader = reader;
+            return upperLimit;
         }
 
         @Override
-        public N convert( String value ) throws InvalidConfigurationValueException
+        public T convert( String value ) throws InvalidConfigurationValueException
         {
-            N number = reader.convert( value );
-            if ( verify( number, LESS_THAN, upperLimit ) )
+            if ( floatingPoint )
             {
-                return number;
+                return narrow( parseDouble( value ) );
             }
             else
             {
-                throw new InvalidRangeException( number, null, upperLimit );
+                return narrow( parseLong( value ) );
             }
         }
-    }
 
-    private static class LowerLimit<N extends Number> implements Conversion<String, N>
-    {
-        private final Number lowerLimit;
-        private final Conversion<String, N> reader;
-
-        public LowerLimit( Number lowerLimit, Conversion<String, N> reader )
-        {
-            this.lowerLimit = lowerLimit;
-            this.reader = reader;
-        }
-
-        @Override
-        public N convert( String value ) throws InvalidConfigurationValueException
+        private T narrow( long value ) throws InvalidRangeException
         {
-            N number = reader.convert( value );
-            if ( verify( number, GREATER_THAN, lowerLimit ) )
+            if ( (hasLower && !(floatingLower ? value > doubleLower : value > longLower)) ||
+                 (hasUpper && !(floatingUpper ? value < doubleUpper : value < longUpper)) )
             {
-                return number;
+                throw new InvalidRangeException( value, lowerBound, upperBound );
             }
-            else
+            switch ( target )
             {
-                throw new InvalidRangeException( number, lowerLimit, null );
+            case BYTE:
+                if ( value != (byte) value )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (byte) value );
+            case SHORT:
+                if ( value != (short) value )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (short) value );
+            case INT:
+                if ( value != (int) value )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (int) value );
+            case LONG:
+                return box( value );
+            case FLOAT:
+                return box( (float) value );
+            default:
+                return box( (double) value );
             }
         }
-    }
 
-    private static boolean verify( Number lhs, Comparison comparison, Number rhs )
-    {
-        if ( lhs instanceof Double || lhs instanceof Float )
+        private T narrow( double value ) throws InvalidRangeException
         {
-            if ( rhs instanceof Double || rhs instanceof Float )
+            if ( (hasLower && !(floatingLower ? value > doubleLower : value > longLower)) ||
+                 (hasUpper && !(floatingUpper ? value < doubleUpper : value < longUpper)) )
             {
-                return comparison.compare( lhs.doubleValue(), rhs.doubleValue() );
+                throw new InvalidRangeException( value, lowerBound, upperBound );
             }
-            else
+            switch ( target )
             {
-                return comparison.compare( lhs.doubleValue(), rhs.longValue() );
+            case BYTE:
+                if ( value != (byte) value )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (byte) value );
+            case SHORT:
+                if ( value != (short) value )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (short) value );
+            case INT:
+                if ( value != (int) value )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (int) value );
+            case LONG:
+                if ( value < Long.MIN_VALUE || value > Long.MAX_VALUE )
+                {
+                    throw new InvalidRangeException( value, lowerBound, upperBound );
+                }
+                return box( (long) value );
+            case FLOAT:
+                return box( (float) value );
+            default:
+                return box( value );
             }
         }
-        else
+
+        @SuppressWarnings("unchecked")
+        private T box( Object value )
         {
-            if ( rhs instanceof Double || rhs instanceof Float )
-            {
-                return comparison.compare( lhs.longValue(), rhs.doubleValue() );
-            }
-            else
-            {
-                return comparison.compare( lhs.longValue(), rhs.longValue() );
-            }
+            return (T) value;
         }
-    }
 
-    enum Comparison
-    {
-        LESS_THAN
-                {
-                    @Override
-                    boolean compare( double lhs, double rhs )
-                    {
-                        return lhs < rhs;
-                    }
-
-                    @Override
-                    boolean compare( double lhs, long rhs )
-                    {
-                        return lhs < rhs;
-                    }
-
-                    @Override
-                    boolean compare( long lhs, double rhs )
-                    {
-                        return lhs < rhs;
-                    }
-
-                    @Override
-                    boolean compare( long lhs, long rhs )
-                    {
-                        return lhs < rhs;
-                    }
-                },
-        GREATER_THAN
-                {
-                    @Override
-                    boolean compare( double lhs, double rhs )
-                    {
-                        return lhs > rhs;
-                    }
-
-                    @Override
-                    boolean compare( double lhs, long rhs )
-                    {
-                        return lhs > rhs;
-                    }
-
-                    @Override
-                    boolean compare( long lhs, double rhs )
-                    {
-                        return lhs > rhs;
-                    }
-
-                    @Override
-                    boolean compare( long lhs, long rhs )
-                    {
-                        return lhs > rhs;
-                    }
-                };
-
-        abstract boolean compare( double lhs, double rhs );
-
-        abstract boolean compare( double lhs, long rhs );
-
-        abstract boolean compare( long lhs, double rhs );
-
-        abstract boolean compare( long lhs, long rhs );
+        private static boolean isFloatingPoint( Number limit )
+        {
+            return limit instanceof Double || limit instanceof Float;
+        }
     }
 }
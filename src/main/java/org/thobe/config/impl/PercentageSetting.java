@@ -0,0 +1,56 @@
+package org.thobe.config.impl;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+public final class PercentageSetting
+{
+    static final long ONE_PERCENT = 10000, ONE_HUNDRED_PERCENT = 100 * ONE_PERCENT;
+
+    public static PercentageSetting readPercentage()
+    {
+        return new PercentageSetting();
+    }
+
+    // unlike the numeric limits, which exclude the limit itself, quantities are limited inclusively
+    public PercentageSetting atLeast( String lowerLimit )
+    {
+        this.lowerLimit = limit( lowerLimit );
+        return this;
+    }
+
+    public PercentageSetting atMost( String upperLimit )
+    {
+        this.upperLimit = limit( upperLimit );
+        return this;
+    }
+
+    public Conversion<String, Double> asFraction()
+    {
+        return fraction( lowerLimit, upperLimit );
+    }
+
+    static Conversion<String, Double> fraction( long lowerLimit, long upperLimit )
+    {
+        return new Units.Fraction( new Units.Quantity( Units.PERCENTAGE, lowerLimit, upperLimit, ONE_PERCENT ),
+                                   ONE_HUNDRED_PERCENT );
+    }
+
+    private long lowerLimit = 0, upperLimit = ONE_HUNDRED_PERCENT;
+
+    private PercentageSetting()
+    {
+        // use the factory method
+    }
+
+    private static long limit( String limit )
+    {
+        try
+        {
+            return Units.PERCENTAGE.parse( limit );
+        }
+        catch ( InvalidConfigurationValueException e )
+        {
+            throw new IllegalArgumentException( e.getMessage(), e );
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.thobe.config.impl;
+
+import java.util.Locale;
+
+import org.thobe.config.Configurator;
+import org.thobe.config.InvalidConfigurationValueException;
+import org.thobe.config.Parameter;
+
+public final class PersistentConfiguration implements Configurator
+{
+    private final Locale locale;
+    private final Version[] retained;
+    private volatile Version current;
+
+    public PersistentConfiguration( int retainedVersions )
+    {
+        this( Locale.getDefault(), retainedVersions );
+    }
+
+    public PersistentConfiguration( Locale locale, int retainedVersions )
+    {
+        if ( retainedVersions < 1 )
+        {
+            throw new IllegalArgumentException( "At least one version must be retained." );
+        }
+        this.locale = locale;
+        this.retained = new Version[retainedVersions];
+        this.current = retained[0] = new Version( 0, PersistentTrie.<Value>empty() );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PersistentConfiguration{version=" + current.number + '}';
+    }
+
+    public Version current()
+    {
+        return current;
+    }
+
+    public <T> T get( Setting<T> setting ) throws SettingNotConfiguredException
+    {
+        return current.get( setting );
+    }
+
+    public synchronized Version version( long number )
+    {
+        Version version = number < 0 || number > current.number ? null
+                                                                : retained[(int) (number % retained.length)];
+        if ( version == null || version.number != number )
+        {
+            throw new IllegalArgumentException( String.format( "Version %d is no longer retained.", number ) );
+        }
+        return version;
+    }
+
+    // makes the state of an earlier version current again, recorded as a new version
+    public synchronized Version rollback( long number )
+    {
+        return publish( version( number ).values );
+    }
+
+    public synchronized <T> Version set( Setting<T> setting, T value ) throws ConflictingConfigurationException
+    {
+        if ( setting.isDerived() )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "The derived setting %s cannot be set.", setting ) );
+        }
+        checkConflict( setting );
+        return publish( current.values.put( setting.name(), new Value( setting, setting, null, value ) ) );
+    }
+
+    @Override
+    public synchronized void configure( Parameter parameter, String value ) throws IllegalArgumentException
+    {
+        try
+        {
+            Value configured;
+            if ( parameter instanceof Setting<?> )
+            {
+                Setting<?> setting = (Setting<?>) parameter;
+                if ( setting.isDerived() )
+                {
+                    throw new IllegalArgumentException( String.format(
+                            "The derived setting %s cannot be configured.", setting ) );
+                }
+                checkConflict( setting );
+                configured = new Value( setting, parameter, value, setting.parse( value ) );
+            }
+            else
+            {
+                parameter.verify( value );
+                Value previous = current.values.get( parameter.name() );
+                configured = new Value( previous == null ? null : previous.setting, parameter, value, null );
+            }
+            publish( current.values.put( parameter.name(), configured ) );
+        }
+        catch ( InvalidConfigurationValueException invalid )
+        {
+            throw new IllegalArgumentException( invalid.localizeMessage( locale ), invalid );
+        }
+        catch ( ConflictingConfigurationException conflict )
+        {
+            throw new IllegalArgumentException( conflict.localizedMessage( locale ), conflict );
+        }
+    }
+
+    private void checkConflict( Setting<?> setting ) throws ConflictingConfigurationException
+    {
+        Value previous = current.values.get( setting.name() );
+        if ( previous != null && previous.setting != null && previous.setting != setting )
+        {
+            throw new ConflictingConfigurationException( previous.setting, setting );
+        }
+    }
+
+    private Version publish( PersistentTrie<Value> values )
+    {
+        Version version = new Version( current.number + 1, values );
+        retained[(int) (version.number % retained.length)] = version;
+        current = version;
+        return version;
+    }
+
+    public static final class Version
+    {
+        private final long number;
+        private final PersistentTrie<Value> values;
+
+        private Version( long number, PersistentTrie<Value> values )
+        {
+            this.number = number;
+            this.values = values;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "PersistentConfiguration.Version{" + number + " size=" + values.size() + '}';
+        }
+
+        public long number()
+        {
+            return number;
+        }
+
+        public boolean contains( String name )
+        {
+            return values.get( name ) != null;
+        }
+
+        public <T> T get( final Setting<T> setting ) throws SettingNotConfiguredException
+        {
+            if ( setting.isDerived() )
+            {
+                return setting.derive( new Derivation.Inputs()
+                {
+                    @Override
+                    public <V> V get( Setting<V> input ) throws SettingNotConfiguredException
+                    {
+                        return Version.this.get( input );
+                    }
+                } );
+            }
+            Value value = values.get( setting.name() );
+            Object parsed = value == null ? null : value.parsed( setting );
+            if ( parsed == null )
+            {
+                try
+                {
+                    return setting.getDefaultValue();
+                }
+                catch ( NoConfigurationValueException e )
+                {
+                    throw new SettingNotConfiguredException( setting, e );
+                }
+            }
+            return setting.unsafeCast( parsed );
+        }
+    }
+
+    private static final class Value
+    {
+        final Setting<?> setting;
+        final Parameter parameter;
+        final String raw;
+        private volatile Parsed parsed;
+
+        Value( Setting<?> setting, Parameter parameter, String raw, Object parsed )
+        {
+            this.setting = setting;
+            this.parameter = parameter;
+            this.raw = raw;
+            this.parsed = parsed == null ? null : new Parsed( setting, parsed );
+        }
+
+        // values configured through a foreign parameter are parsed on first read, and shared by every version
+        Object parsed( Setting<?> setting ) throws SettingNotConfiguredException
+        {
+            Parsed parsed = this.parsed;
+            if ( raw == null )
+            {
+                // a value that was set, null falls back to the default like it does in Configuration
+                return parsed == null ? null : parsed.value;
+            }
+            if ( parsed != null && parsed.setting == setting )
+            {
+                return parsed.value;
+            }
+            try
+            {
+                this.parsed = parsed = new Parsed( setting, setting.parse( raw ) );
+            }
+            catch ( InvalidConfigurationValueException invalid )
+            {
+                throw new SettingNotConfiguredWithValidValueException( setting, invalid, parameter );
+            }
+            return parsed.value;
+        }
+    }
+
+    private static final class Parsed
+    {
+        final Setting<?> setting;
+        final Object value;
+
+        Parsed( Setting<?> setting, Object value )
+        {
+            this.setting = setting;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package org.thobe.config.impl;
+
+// an immutable hash array mapped trie, updates copy only the path from the root to the changed entry
+final class PersistentTrie<V>
+{
+    private static final PersistentTrie<?> EMPTY = new PersistentTrie<Object>( new Branch( 0, new Object[0] ), 0 );
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentTrie<V> empty()
+    {
+        return (PersistentTrie<V>) EMPTY;
+    }
+
+    private final Branch root;
+    private final int size;
+
+    private PersistentTrie( Branch root, int size )
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    V get( String key )
+    {
+        int hash = hash( key );
+        Object node = root;
+        for ( int shift = 0; ; shift += 5 )
+        {
+            Branch branch = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & 31);
+            if ( (branch.bitmap & bit) == 0 )
+            {
+                return null;
+            }
+            node = branch.children[Integer.bitCount( branch.bitmap & (bit - 1) )];
+            if ( node instanceof Leaf )
+            {
+                Leaf leaf = (Leaf) node;
+                return leaf.hash == hash && leaf.key.equals( key ) ? (V) leaf.value : null;
+            }
+            if ( node instanceof Collision )
+            {
+                for ( Leaf leaf : ((Collision) node).leaves )
+                {
+                    if ( leaf.key.equals( key ) )
+                    {
+                        return (V) leaf.value;
+                    }
+                }
+                return null;
+            }
+        }
+    }
+
+    PersistentTrie<V> put( String key, V value )
+    {
+        boolean replaces = get( key ) != null;
+        return new PersistentTrie<V>( insert( root, 0, new Leaf( hash( key ), key, value ) ),
+                                      replaces ? size : size + 1 );
+    }
+
+    private static Branch insert( Branch branch, int shift, Leaf leaf )
+    {
+        int bit = 1 << ((leaf.hash >>> shift) & 31);
+        int index = Integer.bitCount( branch.bitmap & (bit - 1) );
+        if ( (branch.bitmap & bit) == 0 )
+        {
+            Object[] children = new Object[branch.children.length + 1];
+            System.arraycopy( branch.children, 0, children, 0, index );
+            children[index] = leaf;
+            System.arraycopy( branch.children, index, children, index + 1, branch.children.length - index );
+            return new Branch( branch.bitmap | bit, children );
+        }
+        Object child = branch.children[index], replacement;
+        if ( child instanceof Branch )
+        {
+            replacement = insert( (Branch) child, shift + 5, leaf );
+        }
+        else if ( child instanceof Leaf )
+        {
+            Leaf existing = (Leaf) child;
+            if ( existing.hash != leaf.hash )
+            {
+                replacement = insert( insert( new Branch( 0, new Object[0] ), shift + 5, existing ), shift + 5, leaf );
+            }
+            else if ( existing.key.equals( leaf.key ) )
+            {
+                replacement = leaf;
+            }
+            else
+            {
+                replacement = new Collision( new Leaf[]{existing, leaf} );
+            }
+        }
+        else
+        {
+            Collision collision = (Collision) child;
+            if ( collision.leaves[0].hash == leaf.hash )
+            {
+                replacement = collision.with( leaf );
+            }
+            else
+            {
+                Branch nested = new Branch( 1 << ((collision.leaves[0].hash >>> (shift + 5)) & 31),
+                                            new Object[]{collision} );
+                replacement = insert( nested, shift + 5, leaf );
+            }
+        }
+        Object[] children = branch.children.clone();
+        children[index] = replacement;
+        return new Branch( branch.bitmap, children );
+    }
+
+    private static int hash( String key )
+    {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Branch
+    {
+        final int bitmap;
+        final Object[] children;
+
+        Branch( int bitmap, Object[] children )
+        {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+    }
+
+    private static final class Leaf
+    {
+        final int hash;
+        final String key;
+        final Object value;
+
+        Leaf( int hash, String key, Object value )
+        {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Collision
+    {
+        final Leaf[] leaves;
+
+        Collision( Leaf[] leaves )
+        {
+            this.leaves = leaves;
+        }
+
+        Collision with( Leaf leaf )
+        {
+            for ( int i = 0; i < leaves.length; i++ )
+            {
+                if ( leaves[i].key.equals( leaf.key ) )
+                {
+                    Leaf[] replaced = leaves.clone();
+                    replaced[i] = leaf;
+                    return new Collision( replaced );
+                }
+            }
+            Leaf[] added = new Leaf[leaves.length + 1];
+            System.arraycopy( leaves, 0, added, 0, leaves.length );
+            added[leaves.length] = leaf;
+            return new Collision( added );
+        }
+    }
+}
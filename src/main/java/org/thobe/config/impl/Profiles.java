@@ -0,0 +1,67 @@
+package org.thobe.config.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// the profiles conditional values can be keyed by, and the ones that are active
+public final class Profiles
+{
+    public static final Profiles NONE = new Profiles( Collections.<String>emptySet(), Collections.<String>emptyList() );
+
+    public static Profiles declare( String... known )
+    {
+        return new Profiles( new LinkedHashSet<String>( Arrays.asList( known ) ), Collections.<String>emptyList() );
+    }
+
+    private final Set<String> known;
+    private final List<String> active;
+
+    private Profiles( Set<String> known, List<String> active )
+    {
+        this.known = Collections.unmodifiableSet( known );
+        this.active = active;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Profiles{known=" + known + ", active=" + active + '}';
+    }
+
+    // later profiles take precedence over earlier ones
+    public Profiles activate( String... profiles )
+    {
+        for ( String profile : profiles )
+        {
+            if ( !known.contains( profile ) )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The profile [%s] is not one of %s.", profile, known ) );
+            }
+        }
+        return new Profiles( known, Collections.unmodifiableList( Arrays.asList( profiles.clone() ) ) );
+    }
+
+    public Set<String> known()
+    {
+        return known;
+    }
+
+    public List<String> active()
+    {
+        return active;
+    }
+
+    boolean isKnown( String profile )
+    {
+        return known.contains( profile );
+    }
+
+    int rank( String profile )
+    {
+        return active.indexOf( profile );
+    }
+}
@@ -0,0 +1,171 @@
+package org.thobe.config.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.thobe.config.InvalidConfigurationValueException;
+import org.thobe.config.Parameter;
+
+public final class ReplicationFollower
+{
+    private final Configuration configuration;
+    private final Map<String, Setting<?>> settings = new HashMap<String, Setting<?>>();
+    private volatile long version;
+
+    public ReplicationFollower( Configuration configuration, Setting<?>... settings )
+    {
+        this.configuration = configuration;
+        for ( Setting<?> setting : settings )
+        {
+            this.settings.put( setting.name(), setting );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReplicationFollower{version=" + version + '}';
+    }
+
+    public long version()
+    {
+        return version;
+    }
+
+    // returns false if the message does not follow the applied version, the follower must then catch up
+    public boolean receive( byte[] message ) throws IllegalArgumentException
+    {
+        ConfigurationDelta delta = ConfigurationDelta.decode( message );
+        synchronized ( configuration )
+        {
+            if ( delta.version <= version )
+            {
+                return true;
+            }
+            if ( !delta.snapshot && delta.version != version + 1 )
+            {
+                return false;
+            }
+            // every change is checked before any is applied, so a rejected delta leaves the replica untouched
+            Map<String, ConfigurationDelta.Change> changes = new HashMap<String, ConfigurationDelta.Change>();
+            Map<String, String> configured = new HashMap<String, String>();
+            for ( ConfigurationDelta.Change change : delta.changes )
+            {
+                changes.put( change.name, change );
+                if ( change.configured )
+                {
+                    configured.put( change.name, (String) change.value );
+                }
+            }
+            for ( ConfigurationDelta.Change change : delta.changes )
+            {
+                check( change, changes );
+            }
+            // set values come first, configured values may refer to them and to each other
+            for ( ConfigurationDelta.Change change : delta.changes )
+            {
+                if ( !change.configured )
+                {
+                    apply( change );
+                }
+            }
+            for ( String name : Configuration.referenceOrder( configured ) )
+            {
+                apply( changes.get( name ) );
+            }
+            version = delta.version;
+            return true;
+        }
+    }
+
+    private void check( ConfigurationDelta.Change change, Map<String, ConfigurationDelta.Change> changes )
+    {
+        Setting<?> known = settings.get( change.name ), registered = configuration.registered( change.name );
+        if ( known != null && registered != null && known != registered )
+        {
+            throw new IllegalArgumentException( new ConflictingConfigurationException( registered, known ).getMessage() );
+        }
+        Setting<?> setting = known != null ? known : registered;
+        if ( !change.configured )
+        {
+            if ( known == null )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "Cannot apply %s, the setting [%s] is not known to this follower.", change, change.name ) );
+            }
+        }
+        else if ( setting != null && setting.isDerived() )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "Cannot apply %s, the setting %s is derived.", change, setting ) );
+        }
+        else if ( configuration.interpolates( (String) change.value ) )
+        {
+            // interpolated values are checked once expanded, but every reference must resolve
+            for ( String reference : Configuration.references( (String) change.value ) )
+            {
+                if ( !changes.containsKey( reference ) && !configuration.hasValue( reference ) )
+                {
+                    throw new IllegalArgumentException( String.format(
+                            "Cannot apply %s, [%s] has no value.", change, reference ) );
+                }
+            }
+        }
+        else if ( setting != null )
+        {
+            try
+            {
+                setting.parse( (String) change.value );
+            }
+            catch ( InvalidConfigurationValueException invalid )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "Cannot apply %s: %s", change, invalid.getMessage() ), invalid );
+            }
+        }
+    }
+
+    private void apply( final ConfigurationDelta.Change change )
+    {
+        Setting<?> setting = settings.get( change.name );
+        if ( change.configured )
+        {
+            configuration.configure( setting != null ? setting : new Parameter()
+            {
+                @Override
+                public String name()
+                {
+                    return change.name;
+                }
+
+                @Override
+                public void verify( String value ) throws InvalidConfigurationValueException
+                {
+                    // verified by the leader
+                }
+
+                @Override
+                public String toString()
+                {
+                    return "replicated parameter " + change.name;
+                }
+            }, (String) change.value );
+        }
+        else
+        {
+            set( setting, change.value );
+        }
+    }
+
+    private <T> void set( Setting<T> setting, Object value )
+    {
+        try
+        {
+            configuration.set( setting, setting.unsafeCast( value ) );
+        }
+        catch ( ConflictingConfigurationException conflict )
+        {
+            throw new IllegalArgumentException( conflict.getMessage(), conflict );
+        }
+    }
+}
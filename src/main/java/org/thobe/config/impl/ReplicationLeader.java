@@ -0,0 +1,172 @@
+package org.thobe.config.impl;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class ReplicationLeader implements ChangeListener, ChangeGuard
+{
+    private final Configuration configuration;
+    private final int retained;
+    private final ArrayDeque<byte[]> recent = new ArrayDeque<byte[]>();
+    private final Map<String, ConfigurationDelta.Change> pending =
+            new LinkedHashMap<String, ConfigurationDelta.Change>();
+    private final Map<String, ConfigurationDelta.Change> state =
+            new LinkedHashMap<String, ConfigurationDelta.Change>();
+    private final List<ReplicationTransport> followers = new ArrayList<ReplicationTransport>();
+    private final Object sending = new Object();
+    private long version;
+
+    public ReplicationLeader( Configuration configuration, int retainedDeltas )
+    {
+        if ( retainedDeltas < 1 )
+        {
+            throw new IllegalArgumentException( "At least one delta must be retained." );
+        }
+        this.configuration = configuration;
+        this.retained = retainedDeltas;
+        configuration.addChangeListener( this );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ReplicationLeader{version=" + version() + '}';
+    }
+
+    public synchronized long version()
+    {
+        return version;
+    }
+
+    public void close()
+    {
+        configuration.removeChangeListener( this );
+    }
+
+    // values that have no binary encoding would leave the followers with the previous value
+    @Override
+    public void checkSet( String name, Object value )
+    {
+        if ( !BinaryValues.isShareable( value ) )
+        {
+            throw new IllegalArgumentException( String.format(
+                    "The value of [%s] cannot be replicated: %s", name, value ) );
+        }
+    }
+
+    // called with the configuration locked, so only the pending changes are touched here
+    @Override
+    public void valueSet( String name, Object value )
+    {
+        synchronized ( pending )
+        {
+            pending.put( name, new ConfigurationDelta.Change( name, false, value ) );
+        }
+    }
+
+    @Override
+    public void valueConfigured( String name, String value )
+    {
+        synchronized ( pending )
+        {
+            pending.put( name, new ConfigurationDelta.Change( name, true, value ) );
+        }
+    }
+
+    public void attach( ReplicationTransport follower, long followerVersion ) throws IOException
+    {
+        synchronized ( sending )
+        {
+            for ( byte[] message : catchUp( followerVersion ) )
+            {
+                follower.send( message );
+            }
+            synchronized ( this )
+            {
+                followers.add( follower );
+            }
+        }
+    }
+
+    public synchronized void detach( ReplicationTransport follower )
+    {
+        followers.remove( follower );
+    }
+
+    // deltas are sent in order, but without holding the locks that configuration changes need
+    public long flush()
+    {
+        synchronized ( sending )
+        {
+            List<ConfigurationDelta.Change> changes;
+            synchronized ( pending )
+            {
+                if ( pending.isEmpty() )
+                {
+                    return version();
+                }
+                changes = new ArrayList<ConfigurationDelta.Change>( pending.values() );
+                pending.clear();
+            }
+            byte[] delta;
+            List<ReplicationTransport> targets;
+            long flushed;
+            synchronized ( this )
+            {
+                delta = ConfigurationDelta.encode( false, flushed = ++version, changes );
+                for ( ConfigurationDelta.Change change : changes )
+                {
+                    state.put( change.name, change );
+                }
+                recent.addLast( delta );
+                if ( recent.size() > retained )
+                {
+                    recent.removeFirst();
+                }
+                targets = new ArrayList<ReplicationTransport>( followers );
+            }
+            for ( ReplicationTransport follower : targets )
+            {
+                try
+                {
+                    follower.send( delta );
+                }
+                catch ( IOException | RuntimeException e )
+                {
+                    // a follower that cannot keep up or cannot apply the delta must not hold back the others
+                    detach( follower );
+                    follower.close();
+                }
+            }
+            return flushed;
+        }
+    }
+
+    synchronized List<byte[]> catchUp( long followerVersion )
+    {
+        if ( followerVersion >= version )
+        {
+            return Collections.emptyList();
+        }
+        long oldest = version - recent.size() + 1;
+        if ( followerVersion < oldest - 1 )
+        {
+            return Collections.singletonList( ConfigurationDelta.encode( true, version, state.values() ) );
+        }
+        List<byte[]> messages = new ArrayList<byte[]>( (int) (version - followerVersion) );
+        long current = oldest;
+        for ( byte[] delta : recent )
+        {
+            if ( current++ > followerVersion )
+            {
+                messages.add( delta );
+            }
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,234 @@
+package org.thobe.config.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketAddress;
+
+public abstract class ReplicationTransport implements Closeable
+{
+    public static ReplicationTransport loopback( ReplicationLeader leader, ReplicationFollower follower )
+            throws IOException
+    {
+        ReplicationTransport transport = new Loopback( leader, follower );
+        leader.attach( transport, follower.version() );
+        return transport;
+    }
+
+    public static Closeable serve( final ReplicationLeader leader, final ServerSocket server )
+    {
+        Thread acceptor = new Thread( "replication leader " + server.getLocalSocketAddress() )
+        {
+            @Override
+            public void run()
+            {
+                while ( !server.isClosed() )
+                {
+                    try
+                    {
+                        Socket socket = server.accept();
+                        try
+                        {
+                            long version = new DataInputStream( socket.getInputStream() ).readLong();
+                            leader.attach( new Tcp( leader, socket ), version );
+                        }
+                        catch ( IOException e )
+                        {
+                            socket.close();
+                        }
+                    }
+                    catch ( IOException e )
+                    {
+                        // closed, or a single failed connection
+                    }
+                }
+            }
+        };
+        acceptor.setDaemon( true );
+        acceptor.start();
+        return server;
+    }
+
+    public static Closeable follow( ReplicationFollower follower, SocketAddress leader, long retryMillis )
+    {
+        TcpFollower reader = new TcpFollower( follower, leader, retryMillis );
+        reader.start();
+        return reader;
+    }
+
+    public static Closeable follow( ReplicationFollower follower, String host, int port )
+    {
+        return follow( follower, new InetSocketAddress( host, port ), 1000 );
+    }
+
+    private ReplicationTransport()
+    {
+        // limited subclasses
+    }
+
+    abstract void send( byte[] message ) throws IOException;
+
+    @Override
+    public void close()
+    {
+        // nothing to release
+    }
+
+    private static class Loopback extends ReplicationTransport
+    {
+        private final ReplicationLeader leader;
+        private final ReplicationFollower follower;
+
+        Loopback( ReplicationLeader leader, ReplicationFollower follower )
+        {
+            this.leader = leader;
+            this.follower = follower;
+        }
+
+        @Override
+        void send( byte[] message )
+        {
+            if ( !follower.receive( message ) )
+            {
+                for ( byte[] missed : leader.catchUp( follower.version() ) )
+                {
+                    follower.receive( missed );
+                }
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            leader.detach( this );
+        }
+    }
+
+    private static class Tcp extends ReplicationTransport
+    {
+        private final ReplicationLeader leader;
+        private final Socket socket;
+        private final DataOutputStream out;
+
+        Tcp( ReplicationLeader leader, Socket socket ) throws IOException
+        {
+            this.leader = leader;
+            this.socket = socket;
+            this.out = new DataOutputStream( new BufferedOutputStream( socket.getOutputStream() ) );
+        }
+
+        @Override
+        void send( byte[] message ) throws IOException
+        {
+            out.writeInt( message.length );
+            out.write( message );
+            out.flush();
+        }
+
+        @Override
+        public void close()
+        {
+            leader.detach( this );
+            try
+            {
+                socket.close();
+            }
+            catch ( IOException e )
+            {
+                // already gone
+            }
+        }
+    }
+
+    private static class TcpFollower extends Thread implements Closeable
+    {
+        private final ReplicationFollower follower;
+        private final SocketAddress leader;
+        private final long retryMillis;
+        private Socket socket;
+        private boolean closed;
+
+        TcpFollower( ReplicationFollower follower, SocketAddress leader, long retryMillis )
+        {
+            super( "replication follower of " + leader );
+            this.follower = follower;
+            this.leader = leader;
+            this.retryMillis = retryMillis;
+            setDaemon( true );
+        }
+
+        @Override
+        public void run()
+        {
+            while ( !isClosed() )
+            {
+                try ( Socket socket = connect() )
+                {
+                    DataOutputStream out = new DataOutputStream( socket.getOutputStream() );
+                    out.writeLong( follower.version() );
+                    out.flush();
+                    DataInputStream in = new DataInputStream( new BufferedInputStream( socket.getInputStream() ) );
+                    for ( boolean applied = true; applied; )
+                    {
+                        byte[] message = new byte[in.readInt()];
+                        in.readFully( message );
+                        // reconnect on a gap, the leader then sends what was missed since the applied version
+                        applied = follower.receive( message );
+                    }
+                }
+                catch ( IOException | IllegalArgumentException e )
+                {
+                    if ( !isClosed() )
+                    {
+                        try
+                        {
+                            Thread.sleep( retryMillis );
+                        }
+                        catch ( InterruptedException interrupted )
+                        {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+
+        private Socket connect() throws IOException
+        {
+            Socket socket = new Socket();
+            synchronized ( this )
+            {
+                if ( closed )
+                {
+                    socket.close();
+                    throw new IOException( "The follower has been closed." );
+                }
+                this.socket = socket;
+            }
+            socket.connect( leader );
+            return socket;
+        }
+
+        private synchronized boolean isClosed()
+        {
+            return closed;
+        }
+
+        @Override
+        public synchronized void close() throws IOException
+        {
+            closed = true;
+            if ( socket != null )
+            {
+                socket.close();
+            }
+            interrupt();
+        }
+    }
+}
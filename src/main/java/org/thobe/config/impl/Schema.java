@@ -0,0 +1,431 @@
+package org.thobe.config.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+public final class Schema
+{
+    private static final String HEADER =
+            "# name\ttype\tlower limit\tupper limit\tseparator\tdefault value\tdefault provider";
+    // schemas written before defaults could be provided have no provider column
+    private static final int REQUIRED_COLUMNS = 6;
+    private static final String DEFAULT_VALUE = " defaultValue=";
+    private static final String CUSTOM = "custom", DERIVED = "derived", LIST = "list(";
+
+    public static Schema of( Setting<?>... settings )
+    {
+        return of( Arrays.asList( settings ) );
+    }
+
+    public static Schema of( Iterable<? extends Setting<?>> settings )
+    {
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        for ( Setting<?> setting : settings )
+        {
+            entries.put( setting.name(), describe( setting ) );
+        }
+        return new Schema( entries );
+    }
+
+    public static Schema fromFields( Class<?>... holders )
+    {
+        List<Setting<?>> settings = new ArrayList<Setting<?>>();
+        for ( Class<?> holder : holders )
+        {
+            for ( Field field : holder.getDeclaredFields() )
+            {
+                if ( Modifier.isStatic( field.getModifiers() ) && field.getType() == Setting.class )
+                {
+                    try
+                    {
+                        field.setAccessible( true );
+                        settings.add( (Setting<?>) field.get( null ) );
+                    }
+                    catch ( IllegalAccessException e )
+                    {
+                        throw new IllegalArgumentException( "Cannot read " + field, e );
+                    }
+                }
+            }
+        }
+        return of( settings );
+    }
+
+    public static Schema read( Reader source ) throws IOException
+    {
+        BufferedReader reader = source instanceof BufferedReader ? (BufferedReader) source : new BufferedReader( source );
+        Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+        StringBuilder buffer = new StringBuilder();
+        int lineNumber = 0;
+        for ( String line; (line = reader.readLine()) != null; )
+        {
+            lineNumber++;
+            if ( line.length() == 0 || line.charAt( 0 ) == '#' )
+            {
+                continue;
+            }
+            String[] columns = new String[7];
+            int start = 0;
+            for ( int i = 0; i < columns.length && start <= line.length(); i++ )
+            {
+                int end = line.indexOf( '\t', start );
+                if ( end < 0 )
+                {
+                    if ( i < REQUIRED_COLUMNS - 1 )
+                    {
+                        throw new IOException( String.format( "Malformed schema entry on line %d: %s",
+                                                              lineNumber, line ) );
+                    }
+                    end = line.length();
+                }
+                columns[i] = end == start ? null : ConfigurationSnapshot.unescape( line, start, end, buffer );
+                start = end + 1;
+            }
+            Entry entry = new Entry( columns[0], columns[1], columns[2], columns[3], columns[4], columns[5],
+                                     columns[6] );
+            try
+            {
+                entry.conversion();
+            }
+            catch ( IllegalArgumentException e )
+            {
+                throw new IOException( String.format( "Invalid schema entry on line %d: %s", lineNumber,
+                                                      e.getMessage() ), e );
+            }
+            entries.put( entry.name, entry );
+        }
+        return new Schema( entries );
+    }
+
+    public static void main( String... holders ) throws Exception
+    {
+        Class<?>[] classes = new Class<?>[holders.length];
+        for ( int i = 0; i < holders.length; i++ )
+        {
+            classes[i] = Class.forName( holders[i] );
+        }
+        fromFields( classes ).writeTo( new OutputStreamWriter( System.out, StandardCharsets.UTF_8 ) );
+    }
+
+    private final Map<String, Entry> entries;
+
+    private Schema( Map<String, Entry> entries )
+    {
+        this.entries = entries;
+    }
+
+    public Entry entry( String name )
+    {
+        return entries.get( name );
+    }
+
+    public Collection<Entry> entries()
+    {
+        return Collections.unmodifiableCollection( entries.values() );
+    }
+
+    public void writeTo( Writer target ) throws IOException
+    {
+        target.append( HEADER ).append( '\n' );
+        for ( Entry entry : entries.values() )
+        {
+            column( target, entry.name ).append( '\t' );
+            column( target, entry.type ).append( '\t' );
+            column( target, entry.lowerLimit ).append( '\t' );
+            column( target, entry.upperLimit ).append( '\t' );
+            column( target, entry.separator ).append( '\t' );
+            column( target, entry.defaultValue ).append( '\t' );
+            column( target, entry.defaultProvider ).append( '\n' );
+        }
+        target.flush();
+    }
+
+    private static Writer column( Writer target, String value ) throws IOException
+    {
+        if ( value != null )
+        {
+            ConfigurationSnapshot.escape( value, target );
+        }
+        return target;
+    }
+
+    private static Entry describe( Setting<?> setting )
+    {
+        String defaultValue = null, defaultProvider = null;
+        Object provider = setting.defaultValue().provider();
+        if ( provider != null )
+        {
+            defaultProvider = provider.toString();
+        }
+        else
+        {
+            StringBuilder repr = new StringBuilder();
+            setting.defaultValue().formatTo( repr );
+            if ( repr.indexOf( DEFAULT_VALUE ) == 0 )
+            {
+                defaultValue = repr.substring( DEFAULT_VALUE.length() );
+            }
+        }
+        if ( setting.isDerived() )
+        {
+            return new Entry( setting.name(), DERIVED, null, null, null, defaultValue, defaultProvider );
+        }
+        String[] description = new String[4];
+        description[0] = describe( setting.conversion(), description );
+        return new Entry( setting.name(), description[0], description[1], description[2], description[3],
+                          defaultValue, defaultProvider );
+    }
+
+    // fills in lower limit, upper limit and separator, returns the type
+    private static String describe( Conversion<?, ?> conversion, String[] description )
+    {
+        if ( conversion == Setting.booleanConversion() )
+        {
+            return "boolean";
+        }
+        else if ( conversion instanceof Conversion.NoConversion<?> )
+        {
+            return "string";
+        }
+        else if ( conversion instanceof NumericSetting.Fused<?> )
+        {
+            NumericSetting.Fused<?> numeric = (NumericSetting.Fused<?>) conversion;
+            description[1] = numeric.lowerLimit() == null ? null : numeric.lowerLimit().toString();
+            description[2] = numeric.upperLimit() == null ? null : numeric.upperLimit().toString();
+            return (numeric.floatingPoint() ? "floating:" : "integer:") + numeric.target().name().toLowerCase();
+        }
+        else if ( conversion instanceof Units.Fraction )
+        {
+            return describe( ((Units.Fraction) conversion).quantity, description );
+        }
+        else if ( conversion instanceof Units.Quantity )
+        {
+            Units.Quantity quantity = (Units.Quantity) conversion;
+            description[1] = Long.toString( quantity.lowerLimit );
+            description[2] = Long.toString( quantity.upperLimit );
+            return quantity.units.id;
+        }
+        else if ( conversion instanceof Setting.ListConversion<?> )
+        {
+            Setting.ListConversion<?> list = (Setting.ListConversion<?>) conversion;
+            String part = describe( list.partConversion(), description );
+            description[3] = list.separator().pattern();
+            return LIST + part + ")";
+        }
+        return CUSTOM;
+    }
+
+    public static final class Entry
+    {
+        private final String name, type, lowerLimit, upperLimit, separator, defaultValue, defaultProvider;
+        private Setting<?> verifier;
+
+        Entry( String name, String type, String lowerLimit, String upperLimit, String separator,
+               String defaultValue, String defaultProvider )
+        {
+            this.name = name;
+            this.type = type;
+            this.lowerLimit = lowerLimit;
+            this.upperLimit = upperLimit;
+            this.separator = separator;
+            this.defaultValue = defaultValue;
+            this.defaultProvider = defaultProvider;
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public String type()
+        {
+            return type;
+        }
+
+        public String lowerLimit()
+        {
+            return lowerLimit;
+        }
+
+        public String upperLimit()
+        {
+            return upperLimit;
+        }
+
+        public String separator()
+        {
+            return separator;
+        }
+
+        public String defaultValue()
+        {
+            return defaultValue;
+        }
+
+        // the default of the setting is provided when it is read, there is no default value to describe
+        public String defaultProvider()
+        {
+            return defaultProvider;
+        }
+
+        public boolean hasDefault()
+        {
+            return defaultValue != null || defaultProvider != null;
+        }
+
+        public boolean isConfigurable()
+        {
+            return !DERIVED.equals( type );
+        }
+
+        public void verify( String value ) throws InvalidConfigurationValueException
+        {
+            Setting<?> verifier = this.verifier;
+            if ( verifier == null )
+            {
+                Conversion<String, ?> conversion = conversion();
+                if ( conversion == null )
+                {
+                    return;
+                }
+                this.verifier = verifier = Setting.setting( name, conversion );
+            }
+            try
+            {
+                verifier.verify( value );
+            }
+            catch ( NoConfigurationValueException empty )
+            {
+                if ( !hasDefault() )
+                {
+                    throw empty;
+                }
+            }
+        }
+
+        Conversion<String, ?> conversion()
+        {
+            return conversion( type );
+        }
+
+        private Conversion<String, ?> conversion( String type )
+        {
+            if ( CUSTOM.equals( type ) || DERIVED.equals( type ) )
+            {
+                return null;
+            }
+            else if ( "boolean".equals( type ) )
+            {
+                return Setting.booleanConversion();
+            }
+            else if ( "string".equals( type ) )
+            {
+                return Conversion.NoConversion.<String>noConversion();
+            }
+            else if ( type.startsWith( LIST ) && type.endsWith( ")" ) )
+            {
+                Conversion<String, ?> part = conversion( type.substring( LIST.length(), type.length() - 1 ) );
+                if ( part == null )
+                {
+                    part = Conversion.NoConversion.<String>noConversion();
+                }
+                return listOf( Pattern.compile( separator == null ? "," : separator ), part );
+            }
+            else if ( type.startsWith( "integer:" ) || type.startsWith( "floating:" ) )
+            {
+                NumericSetting numeric = type.startsWith( "integer:" ) ? NumericSetting.readInteger()
+                                                                       : NumericSetting.readFloatingPoint();
+                if ( lowerLimit != null )
+                {
+                    if ( isFloatingPoint( lowerLimit ) )
+                    {
+                        numeric.lowerLimit( Double.parseDouble( lowerLimit ) );
+                    }
+                    else
+                    {
+                        numeric.lowerLimit( Long.parseLong( lowerLimit ) );
+                    }
+                }
+                if ( upperLimit != null )
+                {
+                    if ( isFloatingPoint( upperLimit ) )
+                    {
+                        numeric.upperLimit( Double.parseDouble( upperLimit ) );
+                    }
+                    else
+                    {
+                        numeric.upperLimit( Long.parseLong( upperLimit ) );
+                    }
+                }
+                switch ( NumericSetting.Narrowing.valueOf( type.substring( type.indexOf( ':' ) + 1 ).toUpperCase() ) )
+                {
+                case BYTE:
+                    return numeric.asByte();
+                case SHORT:
+                    return numeric.asShort();
+                case INT:
+                    return numeric.asInteger();
+                case LONG:
+                    return numeric.asLong();
+                case FLOAT:
+                    return numeric.asFloat();
+                default:
+                    return numeric.asDouble();
+                }
+            }
+            Units units = Units.named( type );
+            if ( units == null )
+            {
+                throw new IllegalArgumentException( "Unknown setting type: " + type );
+            }
+            long lower = lowerLimit == null ? 0 : Long.parseLong( lowerLimit );
+            if ( units == Units.PERCENTAGE )
+            {
+                return PercentageSetting.fraction(
+                        lower, upperLimit == null ? PercentageSetting.ONE_HUNDRED_PERCENT : Long.parseLong( upperLimit ) );
+            }
+            return new Units.Quantity( units, lower, upperLimit == null ? Long.MAX_VALUE : Long.parseLong( upperLimit ),
+                                       1 );
+        }
+
+        private static <T> Conversion<String, List<T>> listOf( Pattern separator, Conversion<String, T> part )
+        {
+            return new Setting.ListConversion<T>( separator, part );
+        }
+
+        private static boolean isFloatingPoint( String limit )
+        {
+            for ( int i = 0; i < limit.length(); i++ )
+            {
+                char c = limit.charAt( i );
+                if ( c == '.' || c == 'E' || c == 'e' || c == 'I' || c == 'N' )
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Schema.Entry{" + name + ' ' + type + '}';
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.thobe.config.impl;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+public final class SchemaValidator
+{
+    private static final String ALLOW_UNKNOWN = "--allow-unknown";
+
+    public static void main( String... args ) throws IOException
+    {
+        boolean allowUnknown = false;
+        int first = 0;
+        if ( args.length > 0 && ALLOW_UNKNOWN.equals( args[0] ) )
+        {
+            allowUnknown = true;
+            first = 1;
+        }
+        if ( args.length - first < 2 )
+        {
+            System.err.println( "usage: SchemaValidator [" + ALLOW_UNKNOWN + "] <schema> <configuration>..." );
+            System.exit( 2 );
+        }
+        Schema schema;
+        try ( Reader reader = open( args[first] ) )
+        {
+            schema = Schema.read( reader );
+        }
+        SchemaValidator validator = new SchemaValidator( schema ).allowUnknown( allowUnknown );
+        int failures = 0;
+        for ( int i = first + 1; i < args.length; i++ )
+        {
+            try ( Reader reader = open( args[i] ) )
+            {
+                failures += validator.validate( args[i], reader, System.err );
+            }
+        }
+        System.exit( failures == 0 ? 0 : 1 );
+    }
+
+    private static Reader open( String file ) throws IOException
+    {
+        return new InputStreamReader( new FileInputStream( file ), StandardCharsets.UTF_8 );
+    }
+
+    private final Schema schema;
+    private boolean allowUnknown;
+
+    public SchemaValidator( Schema schema )
+    {
+        this.schema = schema;
+    }
+
+    public SchemaValidator allowUnknown( boolean allowUnknown )
+    {
+        this.allowUnknown = allowUnknown;
+        return this;
+    }
+
+    // each logical line is parsed by Properties, so that entries are read as ConfigurationSource.propertiesFile
+    // reads them, one line at a time so that failures can be reported with their line number
+    public int validate( String source, Reader configuration, Appendable report ) throws IOException
+    {
+        BufferedReader reader = configuration instanceof BufferedReader ? (BufferedReader) configuration
+                                                                        : new BufferedReader( configuration );
+        Properties entry = new Properties();
+        StringBuilder logical = new StringBuilder();
+        int failures = 0, lineNumber = 0, first = 0;
+        for ( String line; (line = reader.readLine()) != null; )
+        {
+            lineNumber++;
+            if ( logical.length() == 0 )
+            {
+                if ( isBlankOrComment( line ) )
+                {
+                    continue;
+                }
+                first = lineNumber;
+            }
+            else
+            {
+                logical.append( '\n' );
+            }
+            logical.append( line );
+            if ( !continues( line ) )
+            {
+                failures += validate( source, first, logical, entry, report );
+                logical.setLength( 0 );
+            }
+        }
+        if ( logical.length() > 0 )
+        {
+            failures += validate( source, first, logical, entry, report );
+        }
+        return failures;
+    }
+
+    private int validate( String source, int lineNumber, CharSequence logical, Properties entry,
+                          Appendable report ) throws IOException
+    {
+        entry.clear();
+        entry.load( new StringReader( logical.toString() ) );
+        int failures = 0;
+        for ( String name : entry.stringPropertyNames() )
+        {
+            String failure = check( name, entry.getProperty( name ) );
+            if ( failure != null )
+            {
+                failures++;
+                report.append( source ).append( ':' ).append( Integer.toString( lineNumber ) ).append( ": [" )
+                      .append( name ).append( "] " ).append( failure ).append( '\n' );
+            }
+        }
+        return failures;
+    }
+
+    private static boolean isBlankOrComment( String line )
+    {
+        for ( int i = 0; i < line.length(); i++ )
+        {
+            char c = line.charAt( i );
+            if ( c != ' ' && c != '\t' && c != '\f' )
+            {
+                return c == '#' || c == '!';
+            }
+        }
+        return true;
+    }
+
+    // a line continues on the next one if it ends with an odd number of backslashes
+    private static boolean continues( String line )
+    {
+        int backslashes = 0;
+        for ( int i = line.length() - 1; i >= 0 && line.charAt( i ) == '\\'; i-- )
+        {
+            backslashes++;
+        }
+        return (backslashes & 1) == 1;
+    }
+
+    private String check( String name, String value )
+    {
+        Schema.Entry entry = schema.entry( name );
+        if ( entry == null )
+        {
+            return allowUnknown ? null : "Unknown setting.";
+        }
+        if ( !entry.isConfigurable() )
+        {
+            return "Derived settings cannot be configured.";
+        }
+        try
+        {
+            entry.verify( value );
+            return null;
+        }
+        catch ( InvalidConfigurationValueException e )
+        {
+            return e.getMessage();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.thobe.config.impl;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 
 import org.thobe.config.InvalidConfigurationValueException;
@@ -21,6 +22,18 @@ public final class Setting<T> implements Parameter
         return new Setting<T>( name, conversion, DefaultValue.<T>defaultValue( defaultValue ) );
     }
 
+    public static <T> Setting<T> setting( String name, Conversion<String, T> conversion,
+                                          DefaultValueProvider<T> defaultValue )
+    {
+        return new Setting<T>( name, conversion, DefaultValue.provided( defaultValue, 0 ) );
+    }
+
+    public static <T> Setting<T> setting( String name, Conversion<String, T> conversion,
+                                          DefaultValueProvider<T> defaultValue, long refreshInterval, TimeUnit unit )
+    {
+        return new Setting<T>( name, conversion, DefaultValue.provided( defaultValue, unit.toNanos( refreshInterval ) ) );
+    }
+
     public static Setting<Boolean> booleanSetting( String name )
     {
         return new Setting<Boolean>( name, BOOLEAN, DefaultValue.<Boolean>noDefaultValue() );
@@ -77,15 +90,35 @@ public final class Setting<T> implements Parameter
         return setting( name, new ListConversion<T>( Pattern.compile( separator ), conversion ), defaultValue );
     }
 
+    public static <T> Setting<T> derivedSetting( String name, Derivation<T> derivation,
+                                                 Setting<?> firstInput, Setting<?>... moreInputs )
+    {
+        Setting<?>[] inputs = new Setting<?>[moreInputs.length + 1];
+        inputs[0] = firstInput;
+        System.arraycopy( moreInputs, 0, inputs, 1, moreInputs.length );
+        return new Setting<T>( name, Setting.<T>notConfigurable(), DefaultValue.<T>noDefaultValue(),
+                               derivation, inputs );
+    }
+
     private final String name;
     private final Conversion<String, T> conversion;
     private final DefaultValue<T> defaultValue;
+    private final Derivation<T> derivation;
+    private final Setting<?>[] inputs;
 
     private Setting( String name, Conversion<String, T> conversion, DefaultValue<T> defaultValue )
     {
-        this.name = name;
+        this( name, conversion, defaultValue, null, null );
+    }
+
+    private Setting( String name, Conversion<String, T> conversion, DefaultValue<T> defaultValue,
+                     Derivation<T> derivation, Setting<?>[] inputs )
+    {
+        this.name = Interner.STRINGS.intern( name );
         this.conversion = conversion;
         this.defaultValue = defaultValue;
+        this.derivation = derivation;
+        this.inputs = inputs;
     }
 
     @Override
@@ -93,6 +126,15 @@ public final class Setting<T> implements Parameter
     {
         StringBuilder repr = new StringBuilder( "Setting{" ).append( name );
         defaultValue.formatTo( repr );
+        if ( inputs != null )
+        {
+            repr.append( " derivedFrom=[" );
+            for ( int i = 0; i < inputs.length; i++ )
+            {
+                repr.append( i == 0 ? "" : ", " ).append( inputs[i].name() );
+            }
+            repr.append( ']' );
+        }
         return repr.append( '}' ).toString();
     }
 
@@ -159,6 +201,66 @@ public final class Setting<T> implements Parameter
         }
     };
 
+    Conversion<String, T> conversion()
+    {
+        return conversion;
+    }
+
+    DefaultValue<T> defaultValue()
+    {
+        return defaultValue;
+    }
+
+    static Conversion<String, Boolean> booleanConversion()
+    {
+        return BOOLEAN;
+    }
+
+    boolean hasDynamicDefault()
+    {
+        return defaultValue.isDynamic();
+    }
+
+    long defaultRefreshNanos()
+    {
+        return defaultValue.refreshNanos();
+    }
+
+    boolean isDerived()
+    {
+        return derivation != null;
+    }
+
+    Setting<?>[] inputs()
+    {
+        return inputs;
+    }
+
+    T derive( Derivation.Inputs inputs ) throws SettingNotConfiguredException
+    {
+        return derivation.derive( inputs );
+    }
+
+    Setting<T> renamed( String name, Derivation<T> derivation, Setting<?>[] inputs )
+    {
+        return new Setting<T>( name, conversion, defaultValue, derivation, inputs );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Conversion<String, T> notConfigurable()
+    {
+        return (Conversion<String, T>) NOT_CONFIGURABLE;
+    }
+
+    private static final Conversion<String, Object> NOT_CONFIGURABLE = new Conversion<String, Object>()
+    {
+        @Override
+        public Object convert( String value )
+        {
+            throw new IllegalArgumentException( "Derived settings cannot be configured." );
+        }
+    };
+
     T getDefaultValue() throws NoConfigurationValueException
     {
         try
@@ -171,7 +273,7 @@ public final class Setting<T> implements Parameter
         }
     }
 
-    private static class ListConversion<T> implements Conversion<String, List<T>>
+    static class ListConversion<T> implements Conversion<String, List<T>>
     {
         static final Pattern COMMA_SEPARATED = Pattern.compile( "," );
         private final Pattern separator;
@@ -196,10 +298,20 @@ public final class Setting<T> implements Parameter
             T[] result = (T[]) new Object[parts.length];
             for ( int i = 0; i < parts.length; i++ )
             {
-                result[i] = partConversion.convert( value );
+                result[i] = partConversion.convert( parts[i] );
             }
             return listOf( result );
         }
+
+        Pattern separator()
+        {
+            return separator;
+        }
+
+        Conversion<String, T> partConversion()
+        {
+            return partConversion;
+        }
     }
 
     private static class UseDefault extends Error
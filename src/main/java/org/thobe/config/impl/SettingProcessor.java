@@ -0,0 +1,364 @@
+package org.thobe.config.impl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+// generates Setting constants with specialized conversions for interfaces annotated with GeneratedSettings
+public final class SettingProcessor extends AbstractProcessor
+{
+    @Override
+    public Set<String> getSupportedAnnotationTypes()
+    {
+        return Collections.singleton( GeneratedSettings.class.getName() );
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process( Set<? extends TypeElement> annotations, RoundEnvironment round )
+    {
+        for ( Element element : round.getElementsAnnotatedWith( GeneratedSettings.class ) )
+        {
+            if ( element.getKind() != ElementKind.INTERFACE )
+            {
+                error( element, "@GeneratedSettings can only be applied to interfaces." );
+                continue;
+            }
+            try
+            {
+                generate( (TypeElement) element );
+            }
+            catch ( InvalidSpecification invalid )
+            {
+                error( invalid.element, invalid.getMessage() );
+            }
+            catch ( IOException e )
+            {
+                error( element, "Cannot write generated settings: " + e.getMessage() );
+            }
+        }
+        return true;
+    }
+
+    private void error( Element element, String message )
+    {
+        processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, message, element );
+    }
+
+    private void generate( TypeElement holder ) throws IOException, InvalidSpecification
+    {
+        String packageName = ((PackageElement) holder.getEnclosingElement()).getQualifiedName().toString();
+        String className = holder.getAnnotation( GeneratedSettings.class ).className();
+        if ( className.isEmpty() )
+        {
+            className = holder.getSimpleName() + "Declarations";
+        }
+        List<String> constants = new ArrayList<String>();
+        StringBuilder source = new StringBuilder();
+        if ( !packageName.isEmpty() )
+        {
+            source.append( "package " ).append( packageName ).append( ";\n\n" );
+        }
+        source.append( "import org.thobe.config.InvalidConfigurationValueException;\n" )
+              .append( "import org.thobe.config.impl.GeneratedConversion;\n" )
+              .append( "import org.thobe.config.impl.Setting;\n\n" )
+              .append( "public final class " ).append( className ).append( "\n{\n" );
+        for ( Element member : holder.getEnclosedElements() )
+        {
+            if ( member.getKind() == ElementKind.METHOD )
+            {
+                constants.add( declare( (ExecutableElement) member, source ) );
+            }
+        }
+        source.append( "    public static final Setting<?>[] ALL = {" );
+        for ( int i = 0; i < constants.size(); i++ )
+        {
+            source.append( i == 0 ? "" : ", " ).append( constants.get( i ) );
+        }
+        source.append( "};\n\n    private " ).append( className ).append( "()\n    {\n" )
+              .append( "        // constants only\n    }\n}\n" );
+        String qualifiedName = packageName.isEmpty() ? className : packageName + '.' + className;
+        try ( Writer writer = processingEnv.getFiler().createSourceFile( qualifiedName, holder ).openWriter() )
+        {
+            writer.write( source.toString() );
+        }
+    }
+
+    private String declare( ExecutableElement method, StringBuilder source ) throws InvalidSpecification
+    {
+        SettingSpec spec = method.getAnnotation( SettingSpec.class );
+        String methodName = method.getSimpleName().toString();
+        String name = spec == null || spec.name().isEmpty() ? snakeCase( methodName ) : spec.name();
+        String defaultValue = spec == null ? "" : spec.defaultValue();
+        Kind kind = Kind.of( method.getReturnType() );
+        if ( kind == null )
+        {
+            throw new InvalidSpecification( method, "Unsupported setting type " + method.getReturnType() + '.' );
+        }
+        String constant = snakeCase( methodName ).toUpperCase();
+        source.append( "    public static final Setting<" ).append( kind.boxed ).append( "> " ).append( constant )
+              .append( " = Setting.setting(\n            " ).append( literal( name ) )
+              .append( ", new GeneratedConversion<" ).append( kind.boxed ).append( ">()\n    {\n" )
+              .append( "        @Override\n        public " ).append( kind.boxed )
+              .append( " convert( String value ) throws InvalidConfigurationValueException\n        {\n" )
+              .append( "            return " );
+        kind.conversion( method, spec == null ? "" : spec.lowerLimit(), spec == null ? "" : spec.upperLimit(),
+                         source );
+        source.append( ";\n        }\n    }" );
+        if ( !defaultValue.isEmpty() )
+        {
+            source.append( ", " ).append( kind.literal( method, defaultValue ) );
+            kind.checkDefault( method, defaultValue, spec.lowerLimit(), spec.upperLimit() );
+        }
+        source.append( " );\n\n" );
+        return constant;
+    }
+
+    private static String snakeCase( String name )
+    {
+        StringBuilder result = new StringBuilder( name.length() + 4 );
+        for ( int i = 0; i < name.length(); i++ )
+        {
+            char c = name.charAt( i );
+            if ( Character.isUpperCase( c ) )
+            {
+                result.append( i == 0 ? "" : "_" ).append( Character.toLowerCase( c ) );
+            }
+            else
+            {
+                result.append( c );
+            }
+        }
+        return result.toString();
+    }
+
+    private static String literal( String value )
+    {
+        StringBuilder literal = new StringBuilder( value.length() + 2 ).append( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            if ( c == '"' || c == '\\' )
+            {
+                literal.append( '\\' ).append( c );
+            }
+            else if ( c < ' ' )
+            {
+                literal.append( String.format( "\\%03o", (int) c ) );
+            }
+            else if ( c > '~' )
+            {
+                literal.append( String.format( "\\u%04x", (int) c ) );
+            }
+            else
+            {
+                literal.append( c );
+            }
+        }
+        return literal.append( '"' ).toString();
+    }
+
+    private enum Kind
+    {
+        BYTE( "Byte", NumericSetting.Narrowing.BYTE ),
+        SHORT( "Short", NumericSetting.Narrowing.SHORT ),
+        INT( "Integer", NumericSetting.Narrowing.INT ),
+        LONG( "Long", NumericSetting.Narrowing.LONG ),
+        FLOAT( "Float", NumericSetting.Narrowing.FLOAT ),
+        DOUBLE( "Double", NumericSetting.Narrowing.DOUBLE ),
+        BOOLEAN( "Boolean", null ),
+        STRING( "String", null );
+
+        final String boxed;
+        final NumericSetting.Narrowing narrowing;
+
+        Kind( String boxed, NumericSetting.Narrowing narrowing )
+        {
+            this.boxed = boxed;
+            this.narrowing = narrowing;
+        }
+
+        static Kind of( TypeMirror type )
+        {
+            String name = type.toString();
+            for ( Kind kind : values() )
+            {
+                if ( name.equals( kind.name().toLowerCase() ) || name.equals( "java.lang." + kind.boxed ) )
+                {
+                    return kind;
+                }
+            }
+            return null;
+        }
+
+        void conversion( ExecutableElement method, String lowerLimit, String upperLimit, StringBuilder source )
+                throws InvalidSpecification
+        {
+            if ( narrowing == null )
+            {
+                if ( !lowerLimit.isEmpty() || !upperLimit.isEmpty() )
+                {
+                    throw new InvalidSpecification( method, "Only numeric settings can have limits." );
+                }
+                source.append( this == STRING ? "value" : "bool( value )" );
+            }
+            else if ( narrowing.min == null )
+            {
+                source.append( this == FLOAT ? "(float) " : "" ).append( "floating( value, " )
+                      .append( lowerLimit.isEmpty() ? "0" : doubleLimit( method, lowerLimit ) ).append( ", " )
+                      .append( upperLimit.isEmpty() ? "0" : doubleLimit( method, upperLimit ) ).append( ", " )
+                      .append( reported( method, lowerLimit ) ).append( ", " )
+                      .append( reported( method, upperLimit ) ).append( " )" );
+            }
+            else
+            {
+                long min = narrowing.min.longValue(), max = narrowing.max.longValue();
+                long lower = lowerLimit.isEmpty() ? min : Math.max( min, longLimit( method, lowerLimit ) + 1 );
+                long upper = upperLimit.isEmpty() ? max : Math.min( max, longLimit( method, upperLimit ) - 1 );
+                source.append( this == LONG ? "" : "(" + name().toLowerCase() + ") " ).append( "integer( value, " )
+                      .append( lower ).append( "L, " ).append( upper ).append( "L, " )
+                      .append( lowerLimit.isEmpty() ? "Long.valueOf( " + min + "L )" : reported( method, lowerLimit ) )
+                      .append( ", " )
+                      .append( upperLimit.isEmpty() ? "Long.valueOf( " + max + "L )" : reported( method, upperLimit ) )
+                      .append( " )" );
+            }
+        }
+
+        String literal( ExecutableElement method, String value ) throws InvalidSpecification
+        {
+            switch ( this )
+            {
+            case STRING:
+                return SettingProcessor.literal( value );
+            case BOOLEAN:
+                try
+                {
+                    return Boolean.toString( Setting.booleanConversion().convert( value ) );
+                }
+                catch ( Exception e )
+                {
+                    throw new InvalidSpecification( method, "Invalid default value " + value + '.' );
+                }
+            case FLOAT:
+                return doubleLimit( method, value ) + "f";
+            case DOUBLE:
+                return doubleLimit( method, value ) + "d";
+            case LONG:
+                return longLimit( method, value ) + "L";
+            default:
+                long literal = longLimit( method, value );
+                if ( literal < narrowing.min.longValue() || literal > narrowing.max.longValue() )
+                {
+                    throw new InvalidSpecification( method, "Default value " + value + " is out of range." );
+                }
+                return "(" + name().toLowerCase() + ") " + literal;
+            }
+        }
+
+        // limits are exclusive, a default on or beyond one would be rejected when the setting is read
+        void checkDefault( ExecutableElement method, String value, String lowerLimit, String upperLimit )
+                throws InvalidSpecification
+        {
+            if ( narrowing == null )
+            {
+                return;
+            }
+            boolean inRange;
+            if ( narrowing.min == null )
+            {
+                double number = Double.parseDouble( doubleLimit( method, value ) );
+                inRange = (lowerLimit.isEmpty() || number > Double.parseDouble( doubleLimit( method, lowerLimit ) ))
+                          && (upperLimit.isEmpty() || number < Double.parseDouble( doubleLimit( method, upperLimit ) ));
+            }
+            else
+            {
+                long number = longLimit( method, value );
+                inRange = (lowerLimit.isEmpty() || number > longLimit( method, lowerLimit ))
+                          && (upperLimit.isEmpty() || number < longLimit( method, upperLimit ));
+            }
+            if ( !inRange )
+            {
+                throw new InvalidSpecification( method, String.format(
+                        "Default value %s is not within the limits (%s, %s).", value,
+                        lowerLimit.isEmpty() ? "unlimited" : lowerLimit,
+                        upperLimit.isEmpty() ? "unlimited" : upperLimit ) );
+            }
+        }
+
+        private static String reported( ExecutableElement method, String limit ) throws InvalidSpecification
+        {
+            if ( limit.isEmpty() )
+            {
+                return "null";
+            }
+            if ( isFloatingPoint( limit ) )
+            {
+                return "Double.valueOf( " + doubleLimit( method, limit ) + " )";
+            }
+            return "Long.valueOf( " + longLimit( method, limit ) + "L )";
+        }
+
+        private static String doubleLimit( ExecutableElement method, String limit ) throws InvalidSpecification
+        {
+            try
+            {
+                double value = Double.parseDouble( limit );
+                if ( Double.isNaN( value ) || Double.isInfinite( value ) )
+                {
+                    throw new InvalidSpecification( method, "Limits and defaults must be finite: " + limit );
+                }
+                return Double.toString( value );
+            }
+            catch ( NumberFormatException e )
+            {
+                throw new InvalidSpecification( method, "Invalid number " + limit + '.' );
+            }
+        }
+
+        private static long longLimit( ExecutableElement method, String limit ) throws InvalidSpecification
+        {
+            try
+            {
+                return NumericSetting.parseLong( limit );
+            }
+            catch ( InvalidNumberException e )
+            {
+                throw new InvalidSpecification( method, "Invalid integer " + limit + '.' );
+            }
+        }
+
+        private static boolean isFloatingPoint( String limit )
+        {
+            return limit.indexOf( '.' ) >= 0 || limit.indexOf( 'e' ) >= 0 || limit.indexOf( 'E' ) >= 0;
+        }
+    }
+
+    private static final class InvalidSpecification extends Exception
+    {
+        final Element element;
+
+        InvalidSpecification( Element element, String message )
+        {
+            super( message );
+            this.element = element;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.thobe.config.impl;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// limits are exclusive, like those of NumericSetting
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface SettingSpec
+{
+    String name() default "";
+
+    String defaultValue() default "";
+
+    String lowerLimit() default "";
+
+    String upperLimit() default "";
+}
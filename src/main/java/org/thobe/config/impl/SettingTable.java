@@ -0,0 +1,209 @@
+package org.thobe.config.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import org.thobe.config.Parameter;
+
+final class SettingTable
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private String[] names;
+    private int[] hashes;
+    private Setting<?>[] settings;
+    private Parameter[] parameters;
+    private String[] raw;
+    private Object[] values;
+    private CompletableFuture<?>[] resolutions;
+    private Object[] defaults;
+    private long[] defaultExpiry;
+    // names in the order they were added, unlike slots this order does not change when the table grows
+    private String[] added = new String[INITIAL_CAPACITY];
+    private int size;
+
+    SettingTable()
+    {
+        allocate( INITIAL_CAPACITY );
+    }
+
+    int find( String name )
+    {
+        int hash = hash( name );
+        int mask = names.length - 1;
+        for ( int slot = hash & mask; ; slot = (slot + 1) & mask )
+        {
+            String candidate = names[slot];
+            if ( candidate == null )
+            {
+                return -1;
+            }
+            if ( hashes[slot] == hash && (candidate == name || candidate.equals( name )) )
+            {
+                return slot;
+            }
+        }
+    }
+
+    int slot( String name )
+    {
+        int hash = hash( name );
+        int mask = names.length - 1;
+        for ( int slot = hash & mask; ; slot = (slot + 1) & mask )
+        {
+            String candidate = names[slot];
+            if ( candidate == null )
+            {
+                if ( (size + 1) * 3 > names.length * 2 )
+                {
+                    grow();
+                    return slot( name );
+                }
+                names[slot] = Interner.STRINGS.intern( name );
+                hashes[slot] = hash;
+                if ( size == added.length )
+                {
+                    added = Arrays.copyOf( added, size * 2 );
+                }
+                added[size++] = names[slot];
+                return slot;
+            }
+            if ( hashes[slot] == hash && (candidate == name || candidate.equals( name )) )
+            {
+                return slot;
+            }
+        }
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    int capacity()
+    {
+        return names.length;
+    }
+
+    String added( int index )
+    {
+        return added[index];
+    }
+
+    String name( int slot )
+    {
+        return names[slot];
+    }
+
+    Setting<?> setting( int slot )
+    {
+        return settings[slot];
+    }
+
+    void setting( int slot, Setting<?> setting )
+    {
+        settings[slot] = setting;
+    }
+
+    Parameter parameter( int slot )
+    {
+        return parameters[slot];
+    }
+
+    String raw( int slot )
+    {
+        return raw[slot];
+    }
+
+    void raw( int slot, Parameter parameter, String value )
+    {
+        parameters[slot] = parameter;
+        raw[slot] = value;
+    }
+
+    Object value( int slot )
+    {
+        return values[slot];
+    }
+
+    void value( int slot, Object value )
+    {
+        values[slot] = value;
+    }
+
+    CompletableFuture<?> resolution( int slot )
+    {
+        return resolutions[slot];
+    }
+
+    void resolution( int slot, CompletableFuture<?> resolution )
+    {
+        resolutions[slot] = resolution;
+    }
+
+    Object defaultValue( int slot, long now )
+    {
+        long expiry = defaultExpiry[slot];
+        return expiry == 0 || now - expiry < 0 ? defaults[slot] : null;
+    }
+
+    void defaultValue( int slot, Object value, long expiry )
+    {
+        defaults[slot] = value;
+        defaultExpiry[slot] = expiry;
+    }
+
+    private void grow()
+    {
+        String[] names = this.names;
+        int[] hashes = this.hashes;
+        Setting<?>[] settings = this.settings;
+        Parameter[] parameters = this.parameters;
+        String[] raw = this.raw;
+        Object[] values = this.values;
+        CompletableFuture<?>[] resolutions = this.resolutions;
+        Object[] defaults = this.defaults;
+        long[] defaultExpiry = this.defaultExpiry;
+        allocate( names.length * 2 );
+        int mask = this.names.length - 1;
+        for ( int old = 0; old < names.length; old++ )
+        {
+            if ( names[old] != null )
+            {
+                int slot = hashes[old] & mask;
+                while ( this.names[slot] != null )
+                {
+                    slot = (slot + 1) & mask;
+                }
+                this.names[slot] = names[old];
+                this.hashes[slot] = hashes[old];
+                this.settings[slot] = settings[old];
+                this.parameters[slot] = parameters[old];
+                this.raw[slot] = raw[old];
+                this.values[slot] = values[old];
+                this.resolutions[slot] = resolutions[old];
+                this.defaults[slot] = defaults[old];
+                this.defaultExpiry[slot] = defaultExpiry[old];
+            }
+        }
+    }
+
+    private void allocate( int capacity )
+    {
+        names = new String[capacity];
+        hashes = new int[capacity];
+        settings = new Setting<?>[capacity];
+        parameters = new Parameter[capacity];
+        raw = new String[capacity];
+        values = new Object[capacity];
+        resolutions = new CompletableFuture<?>[capacity];
+        defaults = new Object[capacity];
+        defaultExpiry = new long[capacity];
+    }
+
+    private static int hash( String name )
+    {
+        int hash = name.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+}
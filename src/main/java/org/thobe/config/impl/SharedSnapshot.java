@@ -0,0 +1,220 @@
+package org.thobe.config.impl;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class SharedSnapshot
+{
+    private static final int MAGIC = 0x43464753, FORMAT = 1, HEADER = 24, MAX_ATTEMPTS = 16;
+
+    // the control file holds the current generation, each generation lives in its own immutable data file,
+    // settings that are only configured from sources must be given so that their values can be resolved
+    public static long publish( Configuration configuration, File control, Setting<?>... settings )
+            throws IOException, SettingNotConfiguredException
+    {
+        Map<String, Object> values = configuration.resolvedValues( settings );
+        ByteBuffer data = ByteBuffer.allocate( 4096 );
+        int count = 0;
+        data.position( HEADER );
+        for ( Map.Entry<String, Object> value : values.entrySet() )
+        {
+            if ( !BinaryValues.isShareable( value.getValue() ) )
+            {
+                throw new IllegalArgumentException( String.format(
+                        "The value of [%s] cannot be shared: %s", value.getKey(), value.getValue() ) );
+            }
+            data = BinaryValues.putString( data, value.getKey() );
+            data = BinaryValues.putValue( data, value.getValue() );
+            count++;
+        }
+        try ( RandomAccessFile file = new RandomAccessFile( control, "rw" ) )
+        {
+            FileLock lock = file.getChannel().lock();
+            try
+            {
+                long generation = file.length() < 8 ? 1 : file.readLong() + 1;
+                data.putInt( 0, MAGIC ).putInt( 4, FORMAT ).putLong( 8, generation ).putInt( 16, count )
+                    .putInt( 20, data.position() );
+                data.flip();
+                try ( RandomAccessFile target = new RandomAccessFile( dataFile( control, generation ), "rw" ) )
+                {
+                    target.setLength( 0 );
+                    target.getChannel().write( data );
+                    target.getChannel().force( true );
+                }
+                file.seek( 0 );
+                file.writeLong( generation );
+                file.getChannel().force( true );
+                dataFile( control, generation - 2 ).delete();
+                return generation;
+            }
+            finally
+            {
+                lock.release();
+            }
+        }
+    }
+
+    public static SharedSnapshot map( File control ) throws IOException
+    {
+        SharedSnapshot snapshot = new SharedSnapshot( control );
+        snapshot.refresh();
+        return snapshot;
+    }
+
+    private final File control;
+    private final MappedByteBuffer generation;
+    private volatile Mapping mapping;
+
+    private SharedSnapshot( File control ) throws IOException
+    {
+        this.control = control;
+        try ( RandomAccessFile file = new RandomAccessFile( control, "r" ) )
+        {
+            this.generation = file.getChannel().map( FileChannel.MapMode.READ_ONLY, 0, 8 );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        Mapping mapping = this.mapping;
+        return "SharedSnapshot{" + control + " generation=" + (mapping == null ? 0 : mapping.generation) + '}';
+    }
+
+    public long generation()
+    {
+        return current().generation;
+    }
+
+    public boolean contains( String name )
+    {
+        return current().offsets.containsKey( name );
+    }
+
+    public <T> T get( Setting<T> setting ) throws SettingNotConfiguredException
+    {
+        Mapping mapping = current();
+        Object value = mapping.get( setting.name() );
+        if ( value == null )
+        {
+            try
+            {
+                return setting.getDefaultValue();
+            }
+            catch ( NoConfigurationValueException e )
+            {
+                throw new SettingNotConfiguredException( setting, e );
+            }
+        }
+        return setting.unsafeCast( value );
+    }
+
+    private Mapping current()
+    {
+        Mapping mapping = this.mapping;
+        if ( mapping == null || mapping.generation != generation.getLong( 0 ) )
+        {
+            mapping = refresh();
+        }
+        return mapping;
+    }
+
+    private synchronized Mapping refresh()
+    {
+        FileNotFoundException missing = null;
+        for ( int attempt = 0; attempt < MAX_ATTEMPTS; attempt++ )
+        {
+            long current = generation.getLong( 0 );
+            Mapping mapping = this.mapping;
+            if ( mapping != null && mapping.generation == current )
+            {
+                return mapping;
+            }
+            try ( RandomAccessFile file = new RandomAccessFile( dataFile( control, current ), "r" ) )
+            {
+                this.mapping = mapping = new Mapping( file.getChannel().map( FileChannel.MapMode.READ_ONLY, 0,
+                                                                              file.length() ) );
+                return mapping;
+            }
+            catch ( FileNotFoundException superseded )
+            {
+                // a newer generation may have been published while we read the control file
+                if ( generation.getLong( 0 ) == current )
+                {
+                    throw new IllegalStateException( String.format(
+                            "Generation %d of configuration snapshot %s is missing.", current, control ),
+                                                     superseded );
+                }
+                missing = superseded;
+            }
+            catch ( IOException e )
+            {
+                throw new IllegalStateException( "Cannot map configuration snapshot " + control, e );
+            }
+        }
+        throw new IllegalStateException(
+                "Configuration snapshot " + control + " changed faster than it could be mapped.", missing );
+    }
+
+    private static File dataFile( File control, long generation )
+    {
+        return new File( control.getPath() + '.' + generation );
+    }
+
+    private static final class Mapping
+    {
+        private final ByteBuffer data;
+        private final long generation;
+        private final Map<String, Integer> offsets;
+        private final int[] positions;
+        private final Object[] decoded;
+
+        Mapping( ByteBuffer data )
+        {
+            if ( data.getInt( 0 ) != MAGIC || data.getInt( 4 ) != FORMAT )
+            {
+                throw new IllegalStateException( "Not a configuration snapshot." );
+            }
+            this.data = data;
+            this.generation = data.getLong( 8 );
+            int count = data.getInt( 16 );
+            this.offsets = new HashMap<String, Integer>( count * 2 );
+            this.positions = new int[count];
+            this.decoded = new Object[count];
+            ByteBuffer cursor = data.duplicate();
+            cursor.position( HEADER );
+            for ( int i = 0; i < count; i++ )
+            {
+                offsets.put( Interner.STRINGS.intern( BinaryValues.getString( cursor ) ), i );
+                positions[i] = cursor.position();
+                BinaryValues.skipValue( cursor );
+            }
+        }
+
+        Object get( String name )
+        {
+            Integer entry = offsets.get( name );
+            if ( entry == null )
+            {
+                return null;
+            }
+            Object value = decoded[entry];
+            if ( value == null )
+            {
+                ByteBuffer cursor = data.duplicate();
+                cursor.position( positions[entry] );
+                decoded[entry] = value = BinaryValues.getValue( cursor );
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package org.thobe.config.impl;
+
+import java.util.Arrays;
+
+import org.thobe.config.InvalidConfigurationValueException;
+
+final class Units
+{
+    static final Units DURATION = new Units(
+            "duration", "duration",
+            new String[]{"ns", "us", "\u00b5s", "ms", "s", "m", "min", "h", "d"},
+            new long[]{1L, 1000L, 1000L, 1000000L, 1000000000L, 60000000000L, 60000000000L, 3600000000000L,
+                       86400000000000L} );
+    static final Units DATA_SIZE = new Units(
+            "datasize", "data size",
+            new String[]{"", "B",
+                         "k", "K", "KiB", "M", "MiB", "G", "GiB", "T", "TiB",
+                         "kB", "KB", "MB", "GB", "TB"},
+            new long[]{1L, 1L,
+                       1L << 10, 1L << 10, 1L << 10, 1L << 20, 1L << 20, 1L << 30, 1L << 30, 1L << 40, 1L << 40,
+                       1000L, 1000L, 1000000L, 1000000000L, 1000000000000L} );
+    // percentages are held as parts per million
+    static final Units PERCENTAGE = new Units(
+            "percentage", "percentage", new String[]{"%", ""}, new long[]{10000L, 10000L} );
+
+    static Units named( String id )
+    {
+        for ( Units units : new Units[]{DURATION, DATA_SIZE, PERCENTAGE} )
+        {
+            if ( units.id.equals( id ) )
+            {
+                return units;
+            }
+        }
+        return null;
+    }
+
+    final String id;
+    private final String kind;
+    private final String[] names;
+    private final long[] multipliers;
+
+    private Units( String id, String kind, String[] names, long[] multipliers )
+    {
+        this.id = id;
+        this.kind = kind;
+        this.names = names;
+        this.multipliers = multipliers;
+    }
+
+    long parse( String value ) throws InvalidConfigurationValueException
+    {
+        int pos = 0, end = value.length();
+        while ( pos < end && value.charAt( pos ) <= ' ' )
+        {
+            pos++;
+        }
+        while ( end > pos && value.charAt( end - 1 ) <= ' ' )
+        {
+            end--;
+        }
+        int start = pos;
+        long integral = 0;
+        for ( ; pos < end && isDigit( value.charAt( pos ) ); pos++ )
+        {
+            if ( integral > (Long.MAX_VALUE - 9) / 10 )
+            {
+                throw invalid( value );
+            }
+            integral = integral * 10 + (value.charAt( pos ) - '0');
+        }
+        long fraction = 0, scale = 1;
+        if ( pos < end && value.charAt( pos ) == '.' )
+        {
+            // a decimal point must be followed by at least one digit, so neither "." nor "5." is a number
+            int point = pos;
+            for ( pos++; pos < end && isDigit( value.charAt( pos ) ); pos++ )
+            {
+                if ( scale < 1000000000000000000L )
+                {
+                    fraction = fraction * 10 + (value.charAt( pos ) - '0');
+                    scale *= 10;
+                }
+            }
+            if ( pos == point + 1 )
+            {
+                throw invalid( value );
+            }
+        }
+        if ( pos == start )
+        {
+            throw invalid( value );
+        }
+        while ( pos < end && value.charAt( pos ) == ' ' )
+        {
+            pos++;
+        }
+        long multiplier = multiplier( value, pos, end );
+        if ( multiplier == 0 )
+        {
+            if ( integral == 0 && fraction == 0 && pos == end )
+            {
+                return 0;
+            }
+            throw invalid( value );
+        }
+        try
+        {
+            return Math.addExact( Math.multiplyExact( integral, multiplier ),
+                                  Math.round( (double) fraction / scale * multiplier ) );
+        }
+        catch ( ArithmeticException overflow )
+        {
+            throw invalid( value );
+        }
+    }
+
+    private long multiplier( String value, int start, int end )
+    {
+        int length = end - start;
+        for ( int i = 0; i < names.length; i++ )
+        {
+            if ( names[i].length() == length && value.regionMatches( start, names[i], 0, length ) )
+            {
+                return multipliers[i];
+            }
+        }
+        return 0;
+    }
+
+    private InvalidQuantityException invalid( String value )
+    {
+        return new InvalidQuantityException( value.trim(), id, kind, Arrays.toString( names ) );
+    }
+
+    private static boolean isDigit( char c )
+    {
+        return c >= '0' && c <= '9';
+    }
+
+    static final class Quantity implements Conversion<String, Long>
+    {
+        final Units units;
+        final long lowerLimit, upperLimit;
+        private final long divisor;
+
+        Quantity( Units units, long lowerLimit, long upperLimit, long divisor )
+        {
+            this.units = units;
+            this.lowerLimit = lowerLimit;
+            this.upperLimit = upperLimit;
+            this.divisor = divisor;
+        }
+
+        @Override
+        public Long convert( String value ) throws InvalidConfigurationValueException
+        {
+            return limited( units.parse( value ) ) / divisor;
+        }
+
+        long limited( long value ) throws InvalidRangeException
+        {
+            if ( value < lowerLimit || value > upperLimit )
+            {
+                throw new InvalidRangeException( scaled( value ), scaled( lowerLimit ), scaled( upperLimit ) );
+            }
+            return value;
+        }
+
+        private Number scaled( long value )
+        {
+            if ( value % divisor == 0 )
+            {
+                return value / divisor;
+            }
+            return value / (double) divisor;
+        }
+    }
+
+    static final class Fraction implements Conversion<String, Double>
+    {
+        final Quantity quantity;
+        private final double denominator;
+
+        Fraction( Quantity quantity, double denominator )
+        {
+            this.quantity = quantity;
+            this.denominator = denominator;
+        }
+
+        @Override
+        public Double convert( String value ) throws InvalidConfigurationValueException
+        {
+            return quantity.limited( quantity.units.parse( value ) ) / denominator;
+        }
+    }
+}
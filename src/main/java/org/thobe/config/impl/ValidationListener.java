@@ -0,0 +1,9 @@
+package org.thobe.config.impl;
+
+import org.thobe.config.InvalidConfigurationValueException;
+import org.thobe.config.Parameter;
+
+public interface ValidationListener
+{
+    void invalidValue( Parameter parameter, InvalidConfigurationValueException invalid );
+}
@@ -0,0 +1,8 @@
+package org.thobe.config.impl;
+
+public enum ValidationPolicy
+{
+    EAGER,
+    LAZY,
+    BACKGROUND
+}
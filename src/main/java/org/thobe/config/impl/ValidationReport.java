@@ -0,0 +1,133 @@
+package org.thobe.config.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.thobe.config.InvalidConfigurationValueException;
+import org.thobe.config.Parameter;
+
+public final class ValidationReport
+{
+    private final int maxFailures;
+    private final List<Failure> failures = new ArrayList<Failure>();
+    private int failureCount, checked;
+
+    ValidationReport( int maxFailures )
+    {
+        this.maxFailures = maxFailures;
+    }
+
+    public synchronized boolean isValid()
+    {
+        return failureCount == 0;
+    }
+
+    public synchronized List<Failure> failures()
+    {
+        return Collections.unmodifiableList( new ArrayList<Failure>( failures ) );
+    }
+
+    public synchronized int failureCount()
+    {
+        return failureCount;
+    }
+
+    public synchronized int checkedCount()
+    {
+        return checked;
+    }
+
+    public synchronized boolean isTruncated()
+    {
+        return failureCount > failures.size();
+    }
+
+    synchronized void checked( int count )
+    {
+        checked += count;
+    }
+
+    synchronized void failed( String name, Parameter parameter, Setting<?> setting,
+                              InvalidConfigurationValueException invalid )
+    {
+        if ( failures.size() < maxFailures )
+        {
+            failures.add( new Failure( name, parameter, setting, invalid ) );
+        }
+        failureCount++;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        StringBuilder repr = new StringBuilder( "ValidationReport{checked=" ).append( checked )
+                .append( ", failures=" ).append( failureCount );
+        for ( Failure failure : failures )
+        {
+            repr.append( "\n  " ).append( failure );
+        }
+        if ( isTruncated() )
+        {
+            repr.append( "\n  ... " ).append( failureCount - failures.size() ).append( " more" );
+        }
+        return repr.append( '}' ).toString();
+    }
+
+    public static final class Failure
+    {
+        private final String name;
+        private final Parameter parameter;
+        private final Setting<?> setting;
+        private final InvalidConfigurationValueException invalid;
+
+        Failure( String name, Parameter parameter, Setting<?> setting, InvalidConfigurationValueException invalid )
+        {
+            this.name = name;
+            this.parameter = parameter;
+            this.setting = setting;
+            this.invalid = invalid;
+        }
+
+        public String name()
+        {
+            return name;
+        }
+
+        public Parameter parameter()
+        {
+            return parameter;
+        }
+
+        public Setting<?> setting()
+        {
+            return setting;
+        }
+
+        public String value()
+        {
+            return invalid.value();
+        }
+
+        public Number lowerLimit()
+        {
+            return invalid instanceof InvalidRangeException ? ((InvalidRangeException) invalid).lowerLimit() : null;
+        }
+
+        public Number upperLimit()
+        {
+            return invalid instanceof InvalidRangeException ? ((InvalidRangeException) invalid).upperLimit() : null;
+        }
+
+        public InvalidConfigurationValueException cause()
+        {
+            return invalid;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "[" + name + "] " + invalid.getMessage();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.thobe.config.impl;
+
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.derivedSetting;
+import static org.thobe.config.impl.Setting.setting;
+
+public class BuildTimeConfigurationTest
+{
+    static final AtomicInteger PARSES = new AtomicInteger();
+    static Setting<Integer> threads = setting( "threads", new Conversion<String, Integer>()
+    {
+        @Override
+        public Integer convert( String value )
+        {
+            PARSES.incrementAndGet();
+            return Integer.parseInt( value );
+        }
+    } );
+    static Setting<Integer> queue_size = setting( "queue_size", readInteger().asInteger(), 128 );
+    static final AtomicInteger PROCESSORS = new AtomicInteger( 300 );
+    static Setting<Integer> workers = setting( "workers", readInteger().asInteger(), new DefaultValueProvider<Integer>()
+    {
+        @Override
+        public Integer provideDefault()
+        {
+            return PROCESSORS.get();
+        }
+    } );
+    static Setting<Integer> worker_queues = derivedSetting( "worker_queues", new Derivation<Integer>()
+    {
+        @Override
+        public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+        {
+            return inputs.get( workers ) * 2;
+        }
+    }, workers );
+    static Setting<Integer> capacity = derivedSetting( "capacity", new Derivation<Integer>()
+    {
+        @Override
+        public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+        {
+            return inputs.get( threads ) * inputs.get( queue_size );
+        }
+    }, threads, queue_size );
+
+    // the shape of a holder class initialized at image build time
+    static final class Prepared
+    {
+        static final Configuration CONFIGURATION;
+
+        static
+        {
+            Map<String, String> values = new HashMap<String, String>();
+            values.put( "threads", "8" );
+            try
+            {
+                CONFIGURATION = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+                CONFIGURATION.configure( ConfigurationSource.values( "build", values ) );
+                CONFIGURATION.resolve( threads, capacity, worker_queues );
+            }
+            catch ( SettingNotConfiguredException e )
+            {
+                throw new ExceptionInInitializerError( e );
+            }
+        }
+    }
+
+    @Test
+    public void shouldServeResolvedValuesWithoutParsingAtRunTime() throws Exception
+    {
+        // given
+        Configuration configuration = Prepared.CONFIGURATION;
+        int parsesAtBuildTime = PARSES.get();
+
+        // when
+        int capacity = configuration.get( BuildTimeConfigurationTest.capacity );
+        int threads = configuration.get( BuildTimeConfigurationTest.threads );
+
+        // then
+        assertEquals( 1, parsesAtBuildTime );
+        assertEquals( 1, PARSES.get() );
+        assertEquals( 8, threads );
+        assertEquals( 1024, capacity );
+        for ( ConfigurationSnapshot.Entry entry : ConfigurationSnapshot.of( configuration ).entries() )
+        {
+            assertTrue( entry.toString(), entry.state() != ConfigurationSnapshot.State.PENDING );
+        }
+    }
+
+    @Test
+    public void shouldEvaluateProvidedDefaultsAtRunTime() throws Exception
+    {
+        // given
+        Configuration configuration = Prepared.CONFIGURATION;
+
+        // when
+        PROCESSORS.set( 4 );
+
+        // then
+        assertEquals( 4, (int) configuration.get( workers ) );
+        assertEquals( 8, (int) configuration.get( worker_queues ) );
+    }
+
+    @Test
+    public void shouldShipResourceMetadataForMessageBundles() throws Exception
+    {
+        // given
+        InputStream metadata = getClass().getResourceAsStream(
+                "/META-INF/native-image/org.thobe/config/resource-config.json" );
+
+        // when
+        assertNotNull( metadata );
+        String content = new Scanner( metadata, "UTF-8" ).useDelimiter( "\\A" ).next();
+
+        // then
+        assertTrue( content.contains( "\"org.thobe.config.impl.Messages\"" ) );
+    }
+}
@@ -0,0 +1,85 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.booleanSetting;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+// the five settings of an inner loop, read through the configuration and through cached readers
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedSettingBenchmark
+{
+    static Setting<Integer> batch_size = setting( "batch_size", readInteger().asInteger(), 64 );
+    static Setting<Integer> retries = setting( "retries", readInteger().asInteger() );
+    static Setting<Long> timeout = setting( "timeout", readInteger().asLong() );
+    static Setting<Boolean> tracing = booleanSetting( "tracing" );
+    static Setting<String> region = stringSetting( "region", "local" );
+
+    private Configuration configuration;
+    private CachedSetting<Integer> cachedBatchSize, cachedRetries;
+    private CachedSetting<Long> cachedTimeout;
+    private CachedSetting<Boolean> cachedTracing;
+    private CachedSetting<String> cachedRegion;
+    private int changes;
+
+    @Setup
+    public void configure() throws Exception
+    {
+        configuration = new Configuration();
+        configuration.configure( retries, "3" );
+        configuration.configure( timeout, "1000" );
+        configuration.configure( tracing, "false" );
+        cachedBatchSize = configuration.cached( batch_size );
+        cachedRetries = configuration.cached( retries );
+        cachedTimeout = configuration.cached( timeout );
+        cachedTracing = configuration.cached( tracing );
+        cachedRegion = configuration.cached( region );
+    }
+
+    @Benchmark
+    public void configurationGet( Blackhole values ) throws Exception
+    {
+        values.consume( configuration.get( batch_size ) );
+        values.consume( configuration.get( retries ) );
+        values.consume( configuration.get( timeout ) );
+        values.consume( configuration.get( tracing ) );
+        values.consume( configuration.get( region ) );
+    }
+
+    @Benchmark
+    public void cachedGet( Blackhole values ) throws Exception
+    {
+        values.consume( cachedBatchSize.get() );
+        values.consume( cachedRetries.get() );
+        values.consume( cachedTimeout.get() );
+        values.consume( cachedTracing.get() );
+        values.consume( cachedRegion.get() );
+    }
+
+    // every read follows a change, so every cached reader refreshes
+    @Benchmark
+    public void cachedGetAfterChange( Blackhole values ) throws Exception
+    {
+        configuration.set( retries, changes++ & 7 );
+        cachedGet( values );
+    }
+}
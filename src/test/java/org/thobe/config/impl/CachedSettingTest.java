@@ -0,0 +1,106 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+
+public class CachedSettingTest
+{
+    static Setting<Integer> batch_size = setting( "batch_size", readInteger().asInteger(), 64 );
+
+    @Test
+    public void shouldRefreshWhenTheConfigurationChanges() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        CachedSetting<Integer> cached = configuration.cached( batch_size );
+        assertEquals( 64, (int) cached.get() );
+
+        // when
+        configuration.configure( batch_size, "128" );
+
+        // then
+        assertEquals( 128, (int) cached.get() );
+
+        // when
+        configuration.set( batch_size, 256 );
+
+        // then
+        assertEquals( 256, (int) cached.get() );
+    }
+
+    @Test
+    public void shouldServeCachedValueWhileTheVersionIsUnchanged() throws Exception
+    {
+        // given
+        final AtomicInteger parses = new AtomicInteger();
+        Setting<Integer> counted = setting( "counted", new Conversion<String, Integer>()
+        {
+            @Override
+            public Integer convert( String value )
+            {
+                parses.incrementAndGet();
+                return Integer.parseInt( value );
+            }
+        } );
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+        configuration.configure( counted, "7" );
+        CachedSetting<Integer> cached = configuration.cached( counted );
+
+        // when
+        for ( int i = 0; i < 1000; i++ )
+        {
+            assertEquals( 7, (int) cached.get() );
+        }
+
+        // then
+        assertEquals( 1, parses.get() );
+    }
+
+    @Test
+    public void shouldNotCacheDefaultsThatRefresh() throws Exception
+    {
+        // given
+        final AtomicInteger provided = new AtomicInteger();
+        Setting<Integer> ticking = setting( "ticking", readInteger().asInteger(), new DefaultValueProvider<Integer>()
+        {
+            @Override
+            public Integer provideDefault()
+            {
+                return provided.incrementAndGet();
+            }
+        }, 1, TimeUnit.NANOSECONDS );
+        CachedSetting<Integer> cached = new Configuration().cached( ticking );
+
+        // when
+        int first = cached.get();
+        Thread.sleep( 1 );
+        int second = cached.get();
+
+        // then
+        assertEquals( first + 1, second );
+    }
+
+    @Test
+    public void shouldNotRefreshWhenOtherSettingsAreFirstRead() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.configure( batch_size, "7" );
+        CachedSetting<Integer> cached = configuration.cached( batch_size );
+        cached.get();
+        long version = configuration.version();
+
+        // when
+        configuration.get( setting( "unconfigured", readInteger().asInteger(), 3 ) );
+
+        // then
+        assertEquals( version, configuration.version() );
+        assertEquals( 7, (int) cached.get() );
+    }
+}
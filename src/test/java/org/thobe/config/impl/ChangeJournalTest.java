@@ -0,0 +1,185 @@
+package org.thobe.config.impl;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class ChangeJournalTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger(), 16 );
+    static Setting<String> banner = stringSetting( "banner", "none" );
+
+    @Test
+    public void shouldRecoverChangesFromTheJournal() throws Exception
+    {
+        // given
+        File directory = folder.newFolder();
+        Configuration configuration = new Configuration();
+        try ( ChangeJournal journal = ChangeJournal.open( directory, configuration, cache_size, banner ) )
+        {
+            configuration.set( cache_size, 64 );
+            configuration.configure( banner, "hello" );
+        }
+
+        // when
+        Configuration recovered = new Configuration();
+        ChangeJournal journal = ChangeJournal.open( directory, recovered, cache_size, banner );
+
+        // then
+        assertEquals( 2, journal.version() );
+        assertEquals( 64, (int) recovered.get( cache_size ) );
+        assertEquals( "hello", recovered.get( banner ) );
+    }
+
+    @Test
+    public void shouldCompactIntoSnapshotWhenTheJournalIsFull() throws Exception
+    {
+        // given
+        File directory = folder.newFolder();
+        Configuration configuration = new Configuration();
+        try ( ChangeJournal journal = ChangeJournal.open( directory, 256, 4, configuration, cache_size, banner ) )
+        {
+            configuration.configure( banner, "kept" );
+            for ( int i = 0; i < 100; i++ )
+            {
+                configuration.set( cache_size, i );
+            }
+        }
+
+        // when
+        Configuration recovered = new Configuration();
+        ChangeJournal journal = ChangeJournal.open( directory, 256, 4, recovered, cache_size, banner );
+
+        // then
+        assertTrue( new File( directory, "snapshot" ).exists() );
+        assertEquals( 101, journal.version() );
+        assertEquals( 99, (int) recovered.get( cache_size ) );
+        assertEquals( "kept", recovered.get( banner ) );
+    }
+
+    @Test
+    public void shouldStopRecoveryAtATornRecord() throws Exception
+    {
+        // given
+        File directory = folder.newFolder();
+        Configuration configuration = new Configuration();
+        try ( ChangeJournal journal = ChangeJournal.open( directory, configuration, cache_size ) )
+        {
+            configuration.set( cache_size, 1 );
+            configuration.set( cache_size, 2 );
+        }
+        try ( RandomAccessFile file = new RandomAccessFile( new File( directory, "journal" ), "rw" ) )
+        {
+            int first = file.readInt();
+            file.seek( 8 + first + 8 + 4 );
+            file.write( ~file.read() );
+        }
+
+        // when
+        Configuration recovered = new Configuration();
+        ChangeJournal journal = ChangeJournal.open( directory, recovered, cache_size );
+
+        // then
+        assertEquals( 1, journal.version() );
+        assertEquals( 1, (int) recovered.get( cache_size ) );
+    }
+
+    @Test
+    public void shouldRecoverWhenUnjournaledSettingsWereSet() throws Exception
+    {
+        // given
+        Setting<Integer> local = setting( "local", readInteger().asInteger(), 1 );
+        File directory = folder.newFolder();
+        Configuration configuration = new Configuration();
+        try ( ChangeJournal journal = ChangeJournal.open( directory, configuration, cache_size ) )
+        {
+            configuration.set( cache_size, 64 );
+            configuration.set( local, 5 );
+        }
+
+        // when
+        Configuration recovered = new Configuration();
+        ChangeJournal journal = ChangeJournal.open( directory, recovered, cache_size );
+
+        // then
+        assertEquals( 1, journal.version() );
+        assertEquals( 64, (int) recovered.get( cache_size ) );
+        assertEquals( 1, (int) recovered.get( local ) );
+    }
+
+    @Test
+    public void shouldRejectValuesOfJournaledSettingsThatCannotBeReplayed() throws Exception
+    {
+        // given
+        Setting<File> home = setting( "home", new Conversion<String, File>()
+        {
+            @Override
+            public File convert( String value )
+            {
+                return new File( value );
+            }
+        } );
+        File directory = folder.newFolder();
+        Configuration configuration = new Configuration();
+        try ( ChangeJournal journal = ChangeJournal.open( directory, configuration, home ) )
+        {
+            configuration.configure( home, "first" );
+
+            // when
+            try
+            {
+                configuration.set( home, new File( "second" ) );
+                fail( "should have thrown exception" );
+            }
+            // then
+            catch ( IllegalArgumentException expected )
+            {
+                assertEquals( new File( "first" ), configuration.get( home ) );
+            }
+        }
+        Configuration recovered = new Configuration();
+        ChangeJournal.open( directory, recovered, home ).close();
+        assertEquals( new File( "first" ), recovered.get( home ) );
+    }
+
+    @Test
+    public void shouldCompactInTheBackgroundWithoutLosingChanges() throws Exception
+    {
+        // given
+        File directory = folder.newFolder();
+        Configuration configuration = new Configuration();
+        ChangeJournal journal = ChangeJournal.open( directory, 256, 1, configuration, cache_size );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            configuration.set( cache_size, i );
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while ( !new File( directory, "snapshot" ).exists() && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 5 );
+        }
+        configuration.set( cache_size, 1000 );
+        journal.close();
+
+        // when
+        Configuration recovered = new Configuration();
+        ChangeJournal reopened = ChangeJournal.open( directory, 256, 1, recovered, cache_size );
+
+        // then
+        assertEquals( 1001, reopened.version() );
+        assertEquals( 1000, (int) recovered.get( cache_size ) );
+    }
+}
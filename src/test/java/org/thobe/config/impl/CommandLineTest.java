@@ -0,0 +1,89 @@
+package org.thobe.config.impl;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.booleanSetting;
+import static org.thobe.config.impl.Setting.listSetting;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class CommandLineTest
+{
+    static Setting<Integer> threads = setting( "threads", readInteger().asInteger(), 4 );
+    static Setting<String> output = stringSetting( "output" );
+    static Setting<Boolean> verbose = booleanSetting( "verbose", false );
+    static Setting<List<Integer>> ports = listSetting( "ports", readInteger().asInteger() );
+
+    @Test
+    public void shouldConfigureSettingsFromArguments() throws Exception
+    {
+        // given
+        CommandLine commandLine = CommandLine.of( threads, output, verbose, ports );
+        Configuration configuration = new Configuration();
+
+        // when
+        int positional = commandLine.parse( new String[]{"--threads=8", "--output", "out.txt", "--verbose",
+                "--ports=80,443", "input.txt"}, configuration );
+
+        // then
+        assertEquals( 5, positional );
+        assertEquals( 8, (int) configuration.get( threads ) );
+        assertEquals( "out.txt", configuration.get( output ) );
+        assertEquals( true, configuration.get( verbose ) );
+        assertEquals( 443, (int) configuration.get( ports ).get( 1 ) );
+    }
+
+    @Test
+    public void shouldStopAtDoubleDash() throws Exception
+    {
+        // given
+        CommandLine commandLine = CommandLine.of( verbose );
+        Configuration configuration = new Configuration();
+
+        // when
+        int positional = commandLine.parse( new String[]{"--verbose=no", "--", "--verbose"}, configuration );
+
+        // then
+        assertEquals( 2, positional );
+        assertEquals( false, configuration.get( verbose ) );
+    }
+
+    @Test
+    public void shouldRejectUnknownOptions() throws Exception
+    {
+        // given
+        CommandLine commandLine = CommandLine.of( threads );
+
+        // when
+        try
+        {
+            commandLine.parse( new String[]{"--thread=2"}, new Configuration() );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertEquals( "Unknown option --thread", expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldDescribeOptionsInUsage() throws Exception
+    {
+        // given
+        StringBuilder usage = new StringBuilder();
+
+        // when
+        CommandLine.of( threads, output, verbose ).usage( usage );
+
+        // then
+        assertEquals( "  --output=<value> required\n" +
+                      "  --threads=<value> defaultValue=4\n" +
+                      "  --verbose defaultValue=false\n", usage.toString() );
+    }
+}
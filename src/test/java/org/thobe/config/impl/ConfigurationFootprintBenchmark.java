@@ -0,0 +1,111 @@
+package org.thobe.config.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+
+// heap per entry of many configurations holding raw values read from files, where every configuration
+// reads its own copy of each string, against plain maps keeping those copies
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConfigurationFootprintBenchmark
+{
+    @Param({"10000"})
+    public int configurations;
+
+    @Param({"1000"})
+    public int settings;
+
+    private Setting<?>[] keys;
+
+    @Setup
+    public void define()
+    {
+        keys = new Setting<?>[settings];
+        for ( int i = 0; i < settings; i++ )
+        {
+            keys[i] = setting( "setting_" + i, readInteger().asInteger() );
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint
+    {
+        public long bytesPerEntry;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            bytesPerEntry = 0;
+        }
+    }
+
+    @Benchmark
+    public Object configurations( Footprint footprint )
+    {
+        long before = HeapUsage.used();
+        Configuration[] loaded = new Configuration[configurations];
+        for ( int i = 0; i < loaded.length; i++ )
+        {
+            loaded[i] = new Configuration();
+            for ( int j = 0; j < keys.length; j++ )
+            {
+                loaded[i].configure( keys[j], read( value( i, j ) ) );
+            }
+        }
+        footprint.bytesPerEntry = (HeapUsage.used() - before) / ((long) configurations * settings);
+        return loaded;
+    }
+
+    @Benchmark
+    public Object maps( Footprint footprint )
+    {
+        long before = HeapUsage.used();
+        Object[] loaded = new Object[configurations];
+        for ( int i = 0; i < loaded.length; i++ )
+        {
+            Map<String, String> values = new HashMap<String, String>();
+            for ( int j = 0; j < keys.length; j++ )
+            {
+                values.put( read( keys[j].name() ), read( value( i, j ) ) );
+            }
+            loaded[i] = values;
+        }
+        footprint.bytesPerEntry = (HeapUsage.used() - before) / ((long) configurations * settings);
+        return loaded;
+    }
+
+    // most configurations agree on most values, as configurations deployed from the same template do
+    private static String value( int configuration, int setting )
+    {
+        return Integer.toString( setting * 8 + configuration % 8 );
+    }
+
+    // a new copy of the string, as parsing a file produces
+    private static String read( String text )
+    {
+        return new String( text.toCharArray() );
+    }
+}
@@ -0,0 +1,188 @@
+package org.thobe.config.impl;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class ConfigurationSnapshotTest
+{
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger() );
+    static Setting<Integer> pool_size = setting( "pool_size", readInteger().asInteger(), 10 );
+    static Setting<String> banner = stringSetting( "banner" );
+
+    @Test
+    public void shouldExportVerifiedPendingAndDefaultValues() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.configure( cache_size, "128" );
+        configuration.configure( banner, "hello\tworld\n" );
+        configuration.get( pool_size );
+        configuration.configure( stringSetting( "unread" ), "raw" );
+        StringWriter target = new StringWriter();
+
+        // when
+        configuration.exportTo( target );
+        ConfigurationSnapshot snapshot = ConfigurationSnapshot.read( new StringReader( target.toString() ) );
+
+        // then
+        assertEquals( ConfigurationSnapshot.State.VERIFIED, snapshot.get( "cache_size" ).state() );
+        assertEquals( "128", snapshot.get( "cache_size" ).value() );
+        assertEquals( "hello\tworld\n", snapshot.get( "banner" ).value() );
+        assertEquals( ConfigurationSnapshot.State.DEFAULT, snapshot.get( "pool_size" ).state() );
+        assertEquals( "10", snapshot.get( "pool_size" ).value() );
+        assertEquals( 4, snapshot.entries().size() );
+    }
+
+    @Test
+    public void shouldExportPendingRawValues() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+        configuration.configure( cache_size, "0x80" );
+        StringWriter target = new StringWriter();
+
+        // when
+        configuration.exportTo( target );
+
+        // then
+        assertEquals( "pending\tcache_size\t0x80\n", target.toString() );
+    }
+
+    @Test
+    public void shouldDiffConfigurationsPerSettingName() throws Exception
+    {
+        // given
+        Configuration left = new Configuration();
+        left.configure( cache_size, "128" );
+        left.configure( banner, "same" );
+        left.get( pool_size );
+        Configuration right = new Configuration();
+        right.configure( cache_size, "256" );
+        right.configure( banner, "same" );
+
+        // when
+        List<ConfigurationSnapshot.Difference> differences = ConfigurationSnapshot.diff( left, right );
+
+        // then
+        assertEquals( 2, differences.size() );
+        for ( ConfigurationSnapshot.Difference difference : differences )
+        {
+            if ( difference.name().equals( "cache_size" ) )
+            {
+                assertEquals( "128", difference.left().value() );
+                assertEquals( "256", difference.right().value() );
+            }
+            else
+            {
+                assertEquals( "pool_size", difference.name() );
+                assertNull( difference.right() );
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotHoldTheConfigurationWhileWritingTheExport() throws Exception
+    {
+        // given
+        final Configuration configuration = new Configuration();
+        configuration.configure( cache_size, "128" );
+        final CountDownLatch writing = new CountDownLatch( 1 ), release = new CountDownLatch( 1 );
+        final Writer slow = new StringWriter()
+        {
+            @Override
+            public void write( String text )
+            {
+                writing.countDown();
+                try
+                {
+                    release.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                super.write( text );
+            }
+        };
+        ExecutorService exporter = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<?> export = exporter.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    configuration.exportTo( slow );
+                    return null;
+                }
+            } );
+            writing.await();
+
+            // when
+            configuration.set( pool_size, 20 );
+
+            // then
+            assertEquals( 20, (int) configuration.get( pool_size ) );
+            release.countDown();
+            export.get( 10, TimeUnit.SECONDS );
+            assertEquals( "128", ConfigurationSnapshot.read( new StringReader( slow.toString() ) )
+                                                      .get( "cache_size" ).value() );
+        }
+        finally
+        {
+            release.countDown();
+            exporter.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldVisitEveryNameOnceWhileTheConfigurationGrowsBetweenBatches() throws Exception
+    {
+        // given
+        final Configuration configuration = new Configuration();
+        for ( int i = 0; i < 1000; i++ )
+        {
+            configuration.configure( setting( "setting_" + i, readInteger().asInteger() ), String.valueOf( i ) );
+        }
+        final Map<String, String> visited = new HashMap<String, String>();
+
+        // when
+        configuration.visit( new ConfigurationSnapshot.Visitor()
+        {
+            @Override
+            public void visit( String name, ConfigurationSnapshot.State state, String value )
+            {
+                assertNull( name + " visited twice", visited.put( name, value ) );
+                if ( name.startsWith( "setting_" ) )
+                {
+                    configuration.configure( setting( "added_" + name, readInteger().asInteger() ), "0" );
+                }
+            }
+        } );
+
+        // then
+        for ( int i = 0; i < 1000; i++ )
+        {
+            assertEquals( String.valueOf( i ), visited.get( "setting_" + i ) );
+            assertEquals( "0", visited.get( "added_setting_" + i ) );
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.thobe.config.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class ConfigurationSourceTest
+{
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger() );
+    static Setting<String> data_dir = stringSetting( "data.dir" );
+
+    @Test
+    public void shouldMapPrefixedEnvironmentVariablesToSettingNames() throws Exception
+    {
+        // given
+        Map<String, String> environment = new HashMap<String, String>();
+        environment.put( "MYAPP_CACHE_SIZE", "128" );
+        environment.put( "OTHER_CACHE_SIZE", "256" );
+        Configuration configuration = new Configuration();
+
+        // when
+        configuration.configure( ConfigurationSource.environmentVariables( "MYAPP_", environment ) );
+
+        // then
+        assertEquals( Integer.valueOf( 128 ), configuration.get( cache_size ) );
+    }
+
+    @Test
+    public void shouldReplaceSeparatorsWhenNormalizingNames() throws Exception
+    {
+        // given
+        Map<String, String> environment = new HashMap<String, String>();
+        environment.put( "MYAPP_DATA_DIR", "/var/lib/myapp" );
+        Configuration configuration = new Configuration();
+
+        // when
+        configuration.configure( ConfigurationSource.environmentVariables( "MYAPP_", environment )
+                                                    .replace( '_', '.' ) );
+
+        // then
+        assertEquals( "/var/lib/myapp", configuration.get( data_dir ) );
+    }
+
+    @Test
+    public void shouldGiveLaterSourcesPrecedence() throws Exception
+    {
+        // given
+        Map<String, String> environment = new HashMap<String, String>();
+        environment.put( "MYAPP_CACHE_SIZE", "128" );
+        Properties properties = new Properties();
+        properties.setProperty( "myapp.cache_size", "512" );
+        Configuration configuration = new Configuration();
+
+        // when
+        configuration.configure( ConfigurationSource.environmentVariables( "MYAPP_", environment ),
+                                 ConfigurationSource.systemProperties( "myapp.", properties ) );
+
+        // then
+        assertEquals( Integer.valueOf( 512 ), configuration.get( cache_size ) );
+    }
+
+    @Test
+    public void shouldNameTheSourceOfAnInvalidValue() throws Exception
+    {
+        // given
+        Properties properties = new Properties();
+        properties.setProperty( "myapp.cache_size", "lots" );
+        Configuration configuration = new Configuration();
+        configuration.configure( ConfigurationSource.systemProperties( "myapp.", properties ) );
+
+        // when
+        try
+        {
+            configuration.get( cache_size );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( SettingNotConfiguredException expected )
+        {
+            assertEquals( "The setting [cache_size] has been configured with an invalid value [lots]. " +
+                          "[lots] is not a valid numerical string. Configuration was done through the use of " +
+                          "the foreign parameter [system property myapp.cache_size].", expected.getMessage() );
+        }
+    }
+}
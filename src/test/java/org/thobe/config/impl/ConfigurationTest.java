@@ -1,16 +1,22 @@
 package org.thobe.config.impl;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 
 import org.hamcrest.Description;
 import org.hamcrest.Matcher;
 import org.junit.Test;
 import org.junit.internal.matchers.TypeSafeMatcher;
+import org.thobe.config.InvalidConfigurationValueException;
 import org.thobe.config.Parameter;
 
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -205,6 +211,160 @@ public class ConfigurationTest
         assertFalse( configuration.get( boolean_parameter_false ) );
     }
 
+    @Test
+    public void shouldResolvePendingValueOnExecutor() throws Exception
+    {
+        // given
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Configuration configuration = configuration( "int_parameter", "42" ).executor( new Executor()
+        {
+            @Override
+            public void execute( Runnable command )
+            {
+                tasks.add( command );
+            }
+        } );
+
+        // when
+        CompletableFuture<Integer> future = configuration.getAsync( int_parameter );
+
+        // then
+        assertFalse( future.isDone() );
+        assertEquals( 1, tasks.size() );
+        tasks.get( 0 ).run();
+        assertEquals( Integer.valueOf( 42 ), future.getNow( null ) );
+    }
+
+    @Test
+    public void shouldReturnSameFutureForRepeatedAsyncResolution() throws Exception
+    {
+        // given
+        Configuration configuration = configuration( "int_parameter", "42" );
+
+        // when
+        CompletableFuture<Integer> first = configuration.getAsync( int_parameter );
+        CompletableFuture<Integer> second = configuration.getAsync( int_parameter );
+
+        // then
+        assertSame( first, second );
+        assertEquals( Integer.valueOf( 42 ), first.get() );
+        assertSame( first, configuration.getAsync( int_parameter ) );
+    }
+
+    @Test
+    public void shouldResolveNewValueAsynchronouslyAfterReconfiguration() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.configure( int_parameter, "1" );
+        CompletableFuture<Integer> before = configuration.getAsync( int_parameter );
+
+        // when
+        configuration.configure( int_parameter, "2" );
+
+        // then
+        assertEquals( Integer.valueOf( 1 ), before.get() );
+        assertEquals( Integer.valueOf( 2 ), configuration.getAsync( int_parameter ).get() );
+    }
+
+    @Test
+    public void shouldCompleteAsyncResolutionOfInvalidValueExceptionally() throws Exception
+    {
+        // given
+        Configuration configuration = configuration( "int_parameter", "junk" );
+
+        // when
+        try
+        {
+            configuration.getAsync( int_parameter ).get();
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( ExecutionException expected )
+        {
+            assertTrue( expected.getCause() instanceof SettingNotConfiguredWithValidValueException );
+        }
+    }
+
+    @Test
+    public void shouldDeferParsingUntilFirstReadWithLazyValidation() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+
+        // when
+        configuration.configure( int_parameter, "junk" );
+
+        // then
+        try
+        {
+            configuration.get( int_parameter );
+            fail( "should have thrown exception" );
+        }
+        catch ( SettingNotConfiguredWithValidValueException expected )
+        {
+            assertTrue( expected.getCause() instanceof InvalidNumberException );
+        }
+        configuration.configure( int_parameter, "17" );
+        assertEquals( Integer.valueOf( 17 ), configuration.get( int_parameter ) );
+    }
+
+    @Test
+    public void shouldReportInvalidValuesFromBackgroundValidation() throws Exception
+    {
+        // given
+        final List<String> invalidValues = new ArrayList<String>();
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.BACKGROUND )
+                .executor( new Executor()
+                {
+                    @Override
+                    public void execute( Runnable command )
+                    {
+                        command.run();
+                    }
+                } )
+                .validationListener( new ValidationListener()
+                {
+                    @Override
+                    public void invalidValue( Parameter parameter, InvalidConfigurationValueException invalid )
+                    {
+                        invalidValues.add( parameter.name() + "=" + invalid.value() );
+                    }
+                } );
+
+        // when
+        configuration.configure( int_parameter, "junk" );
+        configuration.configure( boolean_parameter, "maybe" );
+        configuration.configure( long_parameter, "7" );
+
+        // then
+        assertEquals( asList( "int_parameter=junk", "boolean_parameter=maybe" ), invalidValues );
+        assertEquals( Long.valueOf( 7 ), configuration.get( long_parameter ) );
+    }
+
+    @Test
+    public void shouldNotLetAnotherSettingWithTheSameNameClearAStoredValue() throws Exception
+    {
+        // given
+        Setting<Integer> first = setting( "shared_name", readInteger().asInteger(), 1 );
+        Setting<Integer> second = setting( "shared_name", readInteger().asInteger(), 2 );
+        Configuration configuration = new Configuration();
+        configuration.set( first, 5 );
+
+        // when
+        try
+        {
+            configuration.get( second );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertTrue( expected.getCause() instanceof ConflictingConfigurationException );
+        }
+        assertEquals( 5, (int) configuration.get( first ) );
+    }
+
     private static Configuration configuration( String name, String value )
     {
         Configuration configuration = new Configuration();
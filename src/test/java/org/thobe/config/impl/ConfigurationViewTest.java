@@ -0,0 +1,89 @@
+package org.thobe.config.impl;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.derivedSetting;
+import static org.thobe.config.impl.Setting.setting;
+
+public class ConfigurationViewTest
+{
+    static Setting<Integer> size = setting( "size", readInteger().asInteger(), 16 );
+    static Setting<Integer> doubled = derivedSetting( "doubled", new Derivation<Integer>()
+    {
+        @Override
+        public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+        {
+            return inputs.get( size ) * 2;
+        }
+    }, size );
+
+    @Test
+    public void shouldReadPrefixedNamesFromTheSharedConfiguration() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        Properties properties = new Properties();
+        properties.setProperty( "app.storage.cache.size", "128" );
+        configuration.configure( ConfigurationSource.systemProperties( "app.", properties ) );
+        ConfigurationView cache = configuration.view( "storage" ).view( "cache" );
+
+        // when
+        int cacheSize = cache.get( size );
+        int poolSize = configuration.view( "network.pool" ).get( size );
+
+        // then
+        assertEquals( 128, cacheSize );
+        assertEquals( 16, poolSize );
+    }
+
+    @Test
+    public void shouldCacheViewsAndScopedSettings() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+
+        // when
+        ConfigurationView view = configuration.view( "storage.cache" );
+
+        // then
+        assertSame( view, configuration.view( "storage" ).view( "cache" ) );
+        assertSame( view.scoped( size ), view.scoped( size ) );
+        assertEquals( "storage.cache.size", view.scoped( size ).name() );
+    }
+
+    @Test
+    public void shouldWriteThroughToTheConfiguration() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        ConfigurationView view = configuration.view( "network" );
+
+        // when
+        view.configure( size, "8" );
+
+        // then
+        assertEquals( 8, (int) configuration.get( view.scoped( size ) ) );
+        assertEquals( 16, (int) configuration.get( size ) );
+    }
+
+    @Test
+    public void shouldDeriveFromInputsInTheSameNamespace() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        ConfigurationView view = configuration.view( "network" );
+        view.set( size, 5 );
+
+        // when
+        int value = view.get( doubled );
+
+        // then
+        assertEquals( 10, value );
+        assertEquals( 32, (int) configuration.get( doubled ) );
+    }
+}
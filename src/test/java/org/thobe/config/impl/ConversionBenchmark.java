@@ -0,0 +1,106 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thobe.config.InvalidConfigurationValueException;
+
+import static org.thobe.config.impl.NumericSetting.readInteger;
+
+// the fused numeric conversion against the same parse, range check and narrowing as separate stages,
+// run with -prof gc to compare the allocation per conversion
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversionBenchmark
+{
+    private static final Conversion<String, Number> PARSE = new Conversion<String, Number>()
+    {
+        @Override
+        public Number convert( String value ) throws InvalidConfigurationValueException
+        {
+            try
+            {
+                return Long.valueOf( value.trim() );
+            }
+            catch ( NumberFormatException e )
+            {
+                throw new InvalidNumberException( value, e );
+            }
+        }
+    };
+    private static final Conversion<Number, Number> LOWER_LIMIT = new Conversion<Number, Number>()
+    {
+        @Override
+        public Number convert( Number value ) throws InvalidConfigurationValueException
+        {
+            if ( value.longValue() <= 0 )
+            {
+                throw new InvalidRangeException( value, 0, 1000 );
+            }
+            return value;
+        }
+    };
+    private static final Conversion<Number, Number> UPPER_LIMIT = new Conversion<Number, Number>()
+    {
+        @Override
+        public Number convert( Number value ) throws InvalidConfigurationValueException
+        {
+            if ( value.longValue() >= 1000 )
+            {
+                throw new InvalidRangeException( value, 0, 1000 );
+            }
+            return value;
+        }
+    };
+    private static final Conversion<Number, Integer> NARROW = new Conversion<Number, Integer>()
+    {
+        @Override
+        public Integer convert( Number value )
+        {
+            return value.intValue();
+        }
+    };
+
+    private Conversion<String, Integer> fused, staged;
+    private String[] values;
+    private int next;
+
+    @Setup
+    public void build()
+    {
+        fused = readInteger().lowerLimit( 0 ).upperLimit( 1000 ).asInteger();
+        staged = Conversion.Combined.conversion(
+                Conversion.Combined.conversion( Conversion.Combined.conversion( PARSE, LOWER_LIMIT ), UPPER_LIMIT ),
+                NARROW );
+        values = new String[64];
+        for ( int i = 0; i < values.length; i++ )
+        {
+            values[i] = Integer.toString( 200 + i * 11 );
+        }
+    }
+
+    @Benchmark
+    public Integer fused() throws Exception
+    {
+        return fused.convert( values[next++ & 63] );
+    }
+
+    @Benchmark
+    public Integer staged() throws Exception
+    {
+        return staged.convert( values[next++ & 63] );
+    }
+}
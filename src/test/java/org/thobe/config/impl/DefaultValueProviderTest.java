@@ -0,0 +1,174 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+
+public class DefaultValueProviderTest
+{
+    @Test
+    public void shouldEvaluateProviderOncePerConfiguration() throws Exception
+    {
+        // given
+        CountingProvider processors = new CountingProvider( 8 );
+        Setting<Integer> worker_threads = setting( "worker_threads", readInteger().asInteger(), processors );
+        Configuration configuration = new Configuration();
+
+        // when
+        for ( int i = 0; i < 10; i++ )
+        {
+            assertEquals( Integer.valueOf( 8 ), configuration.get( worker_threads ) );
+        }
+        new Configuration().get( worker_threads );
+
+        // then
+        assertEquals( 2, processors.calls.get() );
+    }
+
+    @Test
+    public void shouldPreferConfiguredValueOverProvidedDefault() throws Exception
+    {
+        // given
+        CountingProvider processors = new CountingProvider( 8 );
+        Setting<Integer> worker_threads = setting( "worker_threads", readInteger().asInteger(), processors );
+        Configuration configuration = new Configuration();
+        configuration.configure( worker_threads, "3" );
+
+        // when
+        int threads = configuration.get( worker_threads );
+
+        // then
+        assertEquals( 3, threads );
+        assertEquals( 0, processors.calls.get() );
+    }
+
+    @Test
+    public void shouldReevaluateProviderAfterRefreshInterval() throws Exception
+    {
+        // given
+        CountingProvider provider = new CountingProvider( 1 );
+        Setting<Integer> file_size = setting( "file_size", readInteger().asInteger(), provider,
+                                              1, TimeUnit.NANOSECONDS );
+        Configuration configuration = new Configuration();
+        configuration.get( file_size );
+
+        // when
+        Thread.sleep( 1 );
+        configuration.get( file_size );
+
+        // then
+        assertEquals( 2, provider.calls.get() );
+    }
+
+    @Test
+    public void shouldReevaluateProviderForAsyncReadsAfterRefreshInterval() throws Exception
+    {
+        // given
+        final AtomicInteger calls = new AtomicInteger();
+        DefaultValueProvider<Integer> provider = new DefaultValueProvider<Integer>()
+        {
+            @Override
+            public Integer provideDefault()
+            {
+                return calls.incrementAndGet();
+            }
+        };
+        Setting<Integer> file_size = setting( "file_size", readInteger().asInteger(), provider,
+                                              1, TimeUnit.NANOSECONDS );
+        Configuration configuration = new Configuration();
+        assertEquals( Integer.valueOf( 1 ), configuration.getAsync( file_size ).get() );
+
+        // when
+        Thread.sleep( 1 );
+        Integer value = configuration.get( file_size );
+
+        // then
+        assertEquals( Integer.valueOf( 2 ), value );
+        Thread.sleep( 1 );
+        assertEquals( Integer.valueOf( 3 ), configuration.getAsync( file_size ).get() );
+    }
+
+    @Test
+    public void shouldTreatNullFromProviderAsMissingDefault() throws Exception
+    {
+        // given
+        Setting<Integer> heap = setting( "heap", readInteger().asInteger(), new DefaultValueProvider<Integer>()
+        {
+            @Override
+            public Integer provideDefault()
+            {
+                return null;
+            }
+        } );
+
+        // when
+        try
+        {
+            new Configuration().get( heap );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( SettingNotConfiguredException expected )
+        {
+            assertEquals( "The required setting [heap] has not been configured.", expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldNotAskProviderAgainWhenItProvidedNoDefault() throws Exception
+    {
+        // given
+        final AtomicInteger calls = new AtomicInteger();
+        Setting<Integer> heap = setting( "heap", readInteger().asInteger(), new DefaultValueProvider<Integer>()
+        {
+            @Override
+            public Integer provideDefault()
+            {
+                calls.incrementAndGet();
+                return null;
+            }
+        } );
+        Configuration configuration = new Configuration();
+
+        // when
+        for ( int i = 0; i < 10; i++ )
+        {
+            try
+            {
+                configuration.get( heap );
+                fail( "should have thrown exception" );
+            }
+            catch ( SettingNotConfiguredException expected )
+            {
+                // the provider had nothing to offer
+            }
+        }
+
+        // then
+        assertEquals( 1, calls.get() );
+    }
+
+    private static class CountingProvider implements DefaultValueProvider<Integer>
+    {
+        final AtomicInteger calls = new AtomicInteger();
+        private final int value;
+
+        CountingProvider( int value )
+        {
+            this.value = value;
+        }
+
+        @Override
+        public Integer provideDefault()
+        {
+            calls.incrementAndGet();
+            return value;
+        }
+    }
+}
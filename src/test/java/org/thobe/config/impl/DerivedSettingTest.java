@@ -0,0 +1,162 @@
+package org.thobe.config.impl;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.derivedSetting;
+import static org.thobe.config.impl.Setting.setting;
+
+public class DerivedSettingTest
+{
+    static Setting<Integer> cpu_count = setting( "cpu_count", readInteger().asInteger(), 4 );
+    static Setting<Integer> page_size = setting( "page_size", readInteger().asInteger(), 4096 );
+    static Setting<Integer> pages = setting( "pages", readInteger().asInteger() );
+
+    @Test
+    public void shouldDeriveValueFromInputs() throws Exception
+    {
+        // given
+        Setting<Integer> worker_threads = derivedSetting( "worker_threads", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return inputs.get( cpu_count ) * 2;
+            }
+        }, cpu_count );
+        Configuration configuration = new Configuration();
+
+        // when
+        int threads = configuration.get( worker_threads );
+
+        // then
+        assertEquals( 8, threads );
+    }
+
+    @Test
+    public void shouldMemoizeDerivedValueUntilAnInputChanges() throws Exception
+    {
+        // given
+        final AtomicInteger derivations = new AtomicInteger();
+        Setting<Integer> buffer = derivedSetting( "buffer", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                derivations.incrementAndGet();
+                return inputs.get( page_size ) * inputs.get( pages );
+            }
+        }, page_size, pages );
+        Configuration configuration = new Configuration();
+        configuration.configure( pages, "2" );
+
+        // when
+        assertEquals( Integer.valueOf( 8192 ), configuration.get( buffer ) );
+        assertEquals( Integer.valueOf( 8192 ), configuration.get( buffer ) );
+        configuration.configure( cpu_count, "16" );
+        assertEquals( Integer.valueOf( 8192 ), configuration.get( buffer ) );
+        configuration.configure( pages, "3" );
+
+        // then
+        assertEquals( Integer.valueOf( 12288 ), configuration.get( buffer ) );
+        assertEquals( 2, derivations.get() );
+    }
+
+    @Test
+    public void shouldInvalidateTransitiveDependents() throws Exception
+    {
+        // given
+        final Setting<Integer> threads = derivedSetting( "threads", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return inputs.get( cpu_count ) * 2;
+            }
+        }, cpu_count );
+        Setting<Integer> queue_size = derivedSetting( "queue_size", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return inputs.get( threads ) * 100;
+            }
+        }, threads );
+        Configuration configuration = new Configuration();
+        assertEquals( Integer.valueOf( 800 ), configuration.get( queue_size ) );
+
+        // when
+        configuration.set( cpu_count, 1 );
+
+        // then
+        assertEquals( Integer.valueOf( 200 ), configuration.get( queue_size ) );
+    }
+
+    @Test
+    public void shouldDetectCyclicDependencies() throws Exception
+    {
+        // given
+        final Setting<Integer> plain_b = setting( "b", readInteger().asInteger(), 1 );
+        final Setting<Integer> a = derivedSetting( "a", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return inputs.get( plain_b );
+            }
+        }, plain_b );
+        Setting<Integer> b = derivedSetting( "b", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return inputs.get( a );
+            }
+        }, a );
+        Configuration configuration = new Configuration();
+
+        // when
+        try
+        {
+            configuration.get( b );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( IllegalStateException expected )
+        {
+            assertEquals( "The derived setting [a] depends on itself through [a, b, a].", expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldNotAllowConfiguringDerivedSetting() throws Exception
+    {
+        // given
+        Setting<Integer> threads = derivedSetting( "threads", new Derivation<Integer>()
+        {
+            @Override
+            public Integer derive( Inputs inputs ) throws SettingNotConfiguredException
+            {
+                return inputs.get( cpu_count );
+            }
+        }, cpu_count );
+        Configuration configuration = new Configuration();
+
+        // when
+        try
+        {
+            configuration.configure( threads, "12" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertTrue( expected.getMessage().startsWith( "The derived setting Setting{threads" ) );
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.thobe.config.impl;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+
+// heap footprints for the benchmarks, measured as the heap in use after collecting garbage
+final class HeapUsage
+{
+    private HeapUsage()
+    {
+        // static utility
+    }
+
+    static long used()
+    {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for ( int i = 0; i < 4; i++ )
+        {
+            System.gc();
+            used = Math.min( used, memory.getHeapMemoryUsage().getUsed() );
+        }
+        return used;
+    }
+}
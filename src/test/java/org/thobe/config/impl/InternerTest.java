@@ -0,0 +1,44 @@
+package org.thobe.config.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class InternerTest
+{
+    @Test
+    public void shouldReturnCanonicalInstanceForEqualStrings() throws Exception
+    {
+        // given
+        Interner interner = new Interner( 4 );
+        String first = new String( "cache_size" );
+        String second = new String( "cache_size" );
+        assertNotSame( first, second );
+
+        // when
+        String canonical = interner.intern( first );
+
+        // then
+        assertSame( first, canonical );
+        assertSame( first, interner.intern( second ) );
+    }
+
+    @Test
+    public void shouldKeepDistinctStringsApart() throws Exception
+    {
+        // given
+        Interner interner = new Interner( 1 );
+
+        // when
+        String first = interner.intern( "first" );
+        String second = interner.intern( "second" );
+
+        // then
+        assertEquals( "first", first );
+        assertEquals( "second", second );
+        assertNull( interner.intern( null ) );
+    }
+}
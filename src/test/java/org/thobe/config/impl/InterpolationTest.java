@@ -0,0 +1,312 @@
+package org.thobe.config.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class InterpolationTest
+{
+    static Setting<String> base_dir = stringSetting( "base_dir" );
+    static Setting<String> data_dir = stringSetting( "data_dir" );
+    static Setting<String> index_dir = stringSetting( "index_dir" );
+
+    @Test
+    public void shouldExpandReferencesToOtherValues() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().interpolation( true );
+
+        // when
+        configuration.configure( base_dir, "/var/db" );
+        configuration.configure( data_dir, "${base_dir}/data" );
+        configuration.configure( index_dir, "${data_dir}/index" );
+
+        // then
+        assertEquals( "/var/db/data", configuration.get( data_dir ) );
+        assertEquals( "/var/db/data/index", configuration.get( index_dir ) );
+    }
+
+    @Test
+    public void shouldReexpandDependentsWhenAReferencedValueChanges() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.configure( base_dir, "/var/db" );
+        configuration.configure( data_dir, "${base_dir}/data" );
+        configuration.configure( index_dir, "${data_dir}/index" );
+        configuration.get( index_dir );
+
+        // when
+        configuration.configure( base_dir, "/srv" );
+
+        // then
+        assertEquals( "/srv/data", configuration.get( data_dir ) );
+        assertEquals( "/srv/data/index", configuration.get( index_dir ) );
+
+        // when
+        configuration.set( base_dir, "/opt" );
+
+        // then
+        assertEquals( "/opt/data/index", configuration.get( index_dir ) );
+    }
+
+    @Test
+    public void shouldOnlyReparseValuesThatDependOnTheChangedKey() throws Exception
+    {
+        // given
+        final AtomicInteger parses = new AtomicInteger();
+        Setting<Integer> counted = setting( "counted", new Conversion<String, Integer>()
+        {
+            @Override
+            public Integer convert( String value )
+            {
+                parses.incrementAndGet();
+                return Integer.parseInt( value );
+            }
+        } );
+        Setting<Integer> unit = setting( "unit", readInteger().asInteger() );
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.configure( unit, "1" );
+        configuration.configure( base_dir, "/var/db" );
+        configuration.configure( counted, "${unit}0" );
+        assertEquals( 10, (int) configuration.get( counted ) );
+        int before = parses.get();
+
+        // when
+        configuration.configure( base_dir, "/srv" );
+
+        // then
+        assertEquals( 10, (int) configuration.get( counted ) );
+        assertEquals( before, parses.get() );
+
+        // when
+        configuration.configure( unit, "4" );
+
+        // then
+        assertEquals( 40, (int) configuration.get( counted ) );
+    }
+
+    @Test
+    public void shouldConfigureReferencedValuesFirstWhenMergingSources() throws Exception
+    {
+        // given
+        Map<String, String> values = new HashMap<String, String>();
+        values.put( "index_dir", "${data_dir}/index" );
+        values.put( "data_dir", "${base_dir}/data" );
+        values.put( "base_dir", "/var/db" );
+        Configuration configuration = new Configuration().interpolation( true );
+
+        // when
+        configuration.configure( ConfigurationSource.values( "file", values ) );
+
+        // then
+        assertEquals( "/var/db/data/index", configuration.get( index_dir ) );
+    }
+
+    @Test
+    public void shouldRejectCyclicReferences() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.configure( index_dir, "/var/db/index" );
+        configuration.configure( data_dir, "${index_dir}/data" );
+
+        // when
+        try
+        {
+            configuration.configure( index_dir, "${data_dir}/index" );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertTrue( expected.getMessage(), expected.getMessage().contains( "index_dir" ) );
+        }
+        assertEquals( "/var/db/index", configuration.get( index_dir ) );
+        configuration.configure( index_dir, "/srv/index" );
+        assertEquals( "/srv/index/data", configuration.get( data_dir ) );
+    }
+
+    @Test
+    public void shouldRejectUnresolvedReferencesAndKeepThePreviousValue() throws Exception
+    {
+        // given
+        Setting<Integer> limit = setting( "limit", readInteger().asInteger(), 2 );
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.configure( limit, "7" );
+
+        // when
+        try
+        {
+            configuration.configure( limit, "${typo}" );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertTrue( expected.getMessage(), expected.getMessage().contains( "typo" ) );
+        }
+        assertEquals( 7, (int) configuration.get( limit ) );
+    }
+
+    @Test
+    public void shouldNotRecordReferencesOfRejectedValues() throws Exception
+    {
+        // given
+        Setting<Integer> limit = setting( "limit", readInteger().asInteger(), 2 );
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.configure( base_dir, "/var/db" );
+        try
+        {
+            configuration.configure( limit, "${base_dir}" );
+            fail( "expected exception" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+            // not a number
+        }
+
+        // when
+        configuration.configure( base_dir, "12" );
+
+        // then
+        assertEquals( 2, (int) configuration.get( limit ) );
+    }
+
+    @Test
+    public void shouldTreatEscapedReferencesAsLiteralText() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().interpolation( true );
+
+        // when
+        configuration.configure( base_dir, "/var/$${HOME}/db$" );
+
+        // then
+        assertEquals( "/var/${HOME}/db$", configuration.get( base_dir ) );
+    }
+
+    @Test
+    public void shouldExpandTheConfiguredStringRegardlessOfValidationPolicy() throws Exception
+    {
+        // given
+        Setting<Long> timeout = setting( "timeout", DurationSetting.readDuration().asMillis() );
+        Setting<Long> grace = setting( "grace", DurationSetting.readDuration().asMillis() );
+        for ( ValidationPolicy policy : new ValidationPolicy[]{ValidationPolicy.EAGER, ValidationPolicy.LAZY} )
+        {
+            Configuration configuration = new Configuration().interpolation( true ).validationPolicy( policy );
+            configuration.configure( timeout, "30s" );
+            configuration.get( timeout );
+
+            // when
+            configuration.configure( grace, "${timeout}" );
+
+            // then
+            assertEquals( 30000, (long) configuration.get( grace ) );
+        }
+    }
+
+    @Test
+    public void shouldRejectChangesThatMakeADependentInvalid() throws Exception
+    {
+        // given
+        Setting<Integer> limit = setting( "limit", readInteger().asInteger(), 2 );
+        final List<String> changes = new ArrayList<String>();
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.addChangeListener( new ChangeListener()
+        {
+            @Override
+            public void valueSet( String name, Object value )
+            {
+                changes.add( name );
+            }
+
+            @Override
+            public void valueConfigured( String name, String value )
+            {
+                changes.add( name );
+            }
+        } );
+        configuration.set( base_dir, "1" );
+        configuration.configure( limit, "${base_dir}" );
+        changes.clear();
+
+        // when
+        try
+        {
+            configuration.set( base_dir, "oops" );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertEquals( "1", configuration.get( base_dir ) );
+            assertEquals( 1, (int) configuration.get( limit ) );
+            assertEquals( 0, changes.size() );
+        }
+    }
+
+    @Test
+    public void shouldStopExpandingWhenReconfiguredWithAPlainValue() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.configure( base_dir, "/var/db" );
+        configuration.configure( data_dir, "${base_dir}/data" );
+
+        // when
+        configuration.configure( data_dir, "/mnt/data" );
+        configuration.configure( base_dir, "/srv" );
+
+        // then
+        assertEquals( "/mnt/data", configuration.get( data_dir ) );
+        assertEquals( "/srv", configuration.get( base_dir ) );
+    }
+
+    @Test
+    public void shouldTakeValuesAsTheyAreUnlessInterpolationIsEnabled() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+
+        // when
+        configuration.configure( data_dir, "a${b" );
+        configuration.configure( index_dir, "x${y}z" );
+
+        // then
+        assertEquals( "a${b", configuration.get( data_dir ) );
+        assertEquals( "x${y}z", configuration.get( index_dir ) );
+    }
+
+    @Test
+    public void shouldReferToTheDefaultOfARegisteredSetting() throws Exception
+    {
+        // given
+        Setting<String> home = stringSetting( "home", "/var/db" );
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.get( home );
+
+        // when
+        configuration.configure( data_dir, "${home}/data" );
+
+        // then
+        assertEquals( "/var/db/data", configuration.get( data_dir ) );
+
+        // when
+        configuration.configure( home, "/srv" );
+
+        // then
+        assertEquals( "/srv/data", configuration.get( data_dir ) );
+    }
+}
@@ -0,0 +1,93 @@
+package org.thobe.config.impl;
+
+import java.util.Locale;
+
+import org.junit.Test;
+import org.thobe.config.LocalizedMessages;
+
+import static org.junit.Assert.assertEquals;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+
+public class LocalizedMessagesTest
+{
+    static final Locale SWEDISH = new Locale( "sv", "SE" );
+
+    @Test
+    public void shouldLocalizeInvalidValueMessage() throws Exception
+    {
+        // given
+        InvalidNumberException invalid = new InvalidNumberException( "abc", new NumberFormatException() );
+
+        // when
+        String message = invalid.localizeMessage( SWEDISH );
+
+        // then
+        assertEquals( "[abc] \u00e4r inte en giltig numerisk str\u00e4ng.", message );
+    }
+
+    @Test
+    public void shouldLocalizeKindOfQuantity() throws Exception
+    {
+        // given
+        InvalidQuantityException invalid = new InvalidQuantityException( "5 weeks", "duration", "duration", "[s]" );
+
+        // when
+        String message = invalid.localizeMessage( SWEDISH );
+
+        // then
+        assertEquals( "[5 weeks] \u00e4r inte en giltig varaktighet, ett tal f\u00f6ljt av n\u00e5gon av [s] " +
+                      "f\u00f6rv\u00e4ntades.", message );
+    }
+
+    @Test
+    public void shouldFallBackToDefaultMessageForUnknownLocale() throws Exception
+    {
+        // given
+        InvalidRangeException invalid = new InvalidRangeException( 5000, 0, 1000 );
+
+        // when
+        String message = invalid.localizeMessage( Locale.JAPANESE );
+
+        // then
+        assertEquals( invalid.getMessage(), message );
+    }
+
+    @Test
+    public void shouldLocalizeConflictMessage() throws Exception
+    {
+        // given
+        Setting<Integer> first = setting( "port", readInteger().asInteger() );
+        Setting<Integer> second = setting( "port", readInteger().asInteger() );
+        ConflictingConfigurationException conflict = new ConflictingConfigurationException( first, second );
+
+        // when
+        String message = conflict.localizedMessage( SWEDISH );
+
+        // then
+        assertEquals( "F\u00f6rs\u00f6kte konfigurera [port] med Setting{port}, men den \u00e4r redan konfigurerad " +
+                      "med Setting{port}.", message );
+    }
+
+    @Test
+    public void shouldFormatPositionalAndEscapedArguments() throws Exception
+    {
+        // when
+        String message = LocalizedMessages.format( Locale.ENGLISH, LocalizedMessagesTest.class,
+                                                   "%2$s before %1$s at 100%%", "first", "second" );
+
+        // then
+        assertEquals( "second before first at 100%", message );
+    }
+
+    @Test
+    public void shouldFallBackToStringFormatForOtherConversions() throws Exception
+    {
+        // when
+        String message = LocalizedMessages.format( Locale.ENGLISH, LocalizedMessagesTest.class,
+                                                   "%d items", 42 );
+
+        // then
+        assertEquals( "42 items", message );
+    }
+}
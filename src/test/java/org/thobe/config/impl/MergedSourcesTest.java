@@ -0,0 +1,202 @@
+package org.thobe.config.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+
+public class MergedSourcesTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger() );
+
+    @Test
+    public void shouldRecordWhichSourceWonEachKey() throws Exception
+    {
+        // given
+        File base = folder.newFile( "base.properties" );
+        try ( Writer writer = new OutputStreamWriter( new FileOutputStream( base ), StandardCharsets.UTF_8 ) )
+        {
+            writer.write( "cache_size=64\npool_size=4\n" );
+        }
+        Map<String, String> overrides = new HashMap<String, String>();
+        overrides.put( "cache_size", "512" );
+
+        // when
+        MergedSources merged = MergedSources.merge( ConfigurationSource.propertiesFile( base ),
+                                                    ConfigurationSource.values( "command line", overrides ) );
+
+        // then
+        assertEquals( "512", merged.value( "cache_size" ) );
+        assertEquals( "command line cache_size", merged.winner( "cache_size" ).toString() );
+        assertEquals( "cache_size=512 from command line cache_size, overriding property cache_size in " + base,
+                      merged.explain( "cache_size" ) );
+        assertEquals( "4", merged.value( "pool_size" ) );
+        assertEquals( 0, merged.overridden( "pool_size" ).size() );
+    }
+
+    @Test
+    public void shouldParseOnlyTheWinningValue() throws Exception
+    {
+        // given
+        final AtomicInteger parses = new AtomicInteger();
+        Setting<Integer> counted = setting( "counted", new Conversion<String, Integer>()
+        {
+            @Override
+            public Integer convert( String value )
+            {
+                parses.incrementAndGet();
+                return Integer.parseInt( value );
+            }
+        } );
+        Configuration configuration = new Configuration();
+        Map<String, String> defaults = new HashMap<String, String>(), overrides = new HashMap<String, String>();
+        defaults.put( "counted", "1" );
+        overrides.put( "counted", "2" );
+
+        // when
+        configuration.configure( ConfigurationSource.values( "defaults", defaults ),
+                                 ConfigurationSource.values( "overrides", overrides ) );
+
+        // then
+        assertEquals( 2, (int) configuration.get( counted ) );
+        assertEquals( 1, parses.get() );
+    }
+
+    @Test
+    public void shouldSelectValuesForActiveProfiles() throws Exception
+    {
+        // given
+        Map<String, String> file = new HashMap<String, String>();
+        file.put( "cache_size", "64" );
+        file.put( "query:cache_size", "1024" );
+        file.put( "ingest:cache_size", "8" );
+        Profiles roles = Profiles.declare( "query", "ingest", "compaction" );
+        Configuration query = new Configuration( roles.activate( "query" ) );
+        Configuration ingest = new Configuration( roles.activate( "ingest" ) );
+        Configuration plain = new Configuration( roles );
+
+        // when
+        query.configure( ConfigurationSource.values( "file", file ) );
+        ingest.configure( ConfigurationSource.values( "file", file ) );
+        plain.configure( ConfigurationSource.values( "file", file ) );
+
+        // then
+        assertEquals( 1024, (int) query.get( cache_size ) );
+        assertEquals( 8, (int) ingest.get( cache_size ) );
+        assertEquals( 64, (int) plain.get( cache_size ) );
+    }
+
+    @Test
+    public void shouldLetLaterSourcesOverrideProfileValues() throws Exception
+    {
+        // given
+        Map<String, String> file = new HashMap<String, String>(), overrides = new HashMap<String, String>();
+        file.put( "query:cache_size", "1024" );
+        file.put( "compaction:cache_size", "16" );
+        overrides.put( "cache_size", "2" );
+        Profiles roles = Profiles.declare( "query", "compaction" );
+
+        // when
+        MergedSources profiles = MergedSources.merge( roles.activate( "query", "compaction" ),
+                                                      ConfigurationSource.values( "file", file ) );
+        MergedSources overridden = MergedSources.merge( roles.activate( "query" ), ConfigurationSource.values( "file", file ),
+                                                        ConfigurationSource.values( "command line", overrides ) );
+
+        // then
+        assertEquals( "16", profiles.value( "cache_size" ) );
+        assertEquals( "file compaction:cache_size", profiles.winner( "cache_size" ).toString() );
+        assertEquals( "2", overridden.value( "cache_size" ) );
+    }
+
+    @Test
+    public void shouldTakeNamesWithoutAKnownProfilePrefixAsTheyAre() throws Exception
+    {
+        // given
+        Map<String, String> file = new HashMap<String, String>();
+        file.put( "jdbc:url", "jdbc:h2:mem" );
+        file.put( "query:cache_size", "1024" );
+
+        // when
+        MergedSources plain = MergedSources.merge( ConfigurationSource.values( "file", file ) );
+        MergedSources inactive = MergedSources.merge( Profiles.declare( "query" ),
+                                                      ConfigurationSource.values( "file", file ) );
+
+        // then
+        assertEquals( "jdbc:h2:mem", plain.value( "jdbc:url" ) );
+        assertEquals( "1024", plain.value( "query:cache_size" ) );
+        assertEquals( "jdbc:h2:mem", inactive.value( "jdbc:url" ) );
+        assertNull( inactive.value( "query:cache_size" ) );
+        assertNull( inactive.value( "cache_size" ) );
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void shouldRejectActivatingUndeclaredProfiles() throws Exception
+    {
+        Profiles.declare( "query" ).activate( "ingest" );
+    }
+
+    @Test
+    public void shouldConfigureNoneOfTheValuesWhenOneIsRejected() throws Exception
+    {
+        // given
+        Setting<Integer> x = setting( "x", readInteger().asInteger(), 1 );
+        Setting<Integer> y = setting( "y", readInteger().asInteger(), 2 );
+        Configuration configuration = new Configuration().interpolation( true );
+        configuration.get( x );
+        configuration.get( y );
+        configuration.configure( cache_size, "64" );
+        final AtomicInteger notified = new AtomicInteger();
+        configuration.addChangeListener( new ChangeListener()
+        {
+            @Override
+            public void valueSet( String name, Object value )
+            {
+                notified.incrementAndGet();
+            }
+
+            @Override
+            public void valueConfigured( String name, String value )
+            {
+                notified.incrementAndGet();
+            }
+        } );
+        Map<String, String> values = new HashMap<String, String>();
+        values.put( "x", "5" );
+        values.put( "cache_size", "${x}0" );
+        values.put( "y", "junk" );
+
+        // when
+        try
+        {
+            configuration.configure( ConfigurationSource.values( "file", values ) );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertEquals( 1, (int) configuration.get( x ) );
+            assertEquals( 2, (int) configuration.get( y ) );
+            assertEquals( 64, (int) configuration.get( cache_size ) );
+            assertEquals( 0, notified.get() );
+        }
+        configuration.configure( x, "7" );
+        assertEquals( 64, (int) configuration.get( cache_size ) );
+    }
+}
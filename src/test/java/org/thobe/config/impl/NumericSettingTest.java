@@ -194,4 +194,85 @@ public class NumericSettingTest
             assertEquals( "4294967295 is not within the valid range [-2147483648,1000].", expected.getMessage() );
         }
     }
+
+    @Test
+    public void shouldReadZeroAsLong() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = NumericSetting.readInteger().asLong();
+
+        // when
+        long value = reader.convert( " 0 " );
+
+        // then
+        assertEquals( 0, value );
+    }
+
+    @Test
+    public void shouldRejectFloatingPointStringThatIsNotANumber() throws Exception
+    {
+        // given
+        Conversion<String, Double> reader = NumericSetting.readFloatingPoint().asDouble();
+
+        // when
+        try
+        {
+            reader.convert( "pi" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidNumberException expected )
+        {
+            assertEquals( "[pi] is not a valid numerical string.", expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldReportSpecifiedLowerLimitWhenRejectingNumberAboveTypeRange() throws Exception
+    {
+        // given
+        Conversion<String, Byte> reader = NumericSetting.readInteger().lowerLimit( 0 ).asByte();
+
+        // when
+        try
+        {
+            reader.convert( "300" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidRangeException expected )
+        {
+            assertEquals( "300 is not within the valid range [0,127].", expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldApplyUserConversionAfterNumericConversion() throws Exception
+    {
+        // given
+        Conversion<String, String> reader = Conversion.Combined.conversion(
+                Conversion.Combined.conversion( NumericSetting.readInteger().upperLimit( 100 ).asInteger(),
+                                                new Conversion<Integer, Integer>()
+                                                {
+                                                    @Override
+                                                    public Integer convert( Integer value )
+                                                    {
+                                                        return value * 2;
+                                                    }
+                                                } ),
+                new Conversion<Integer, String>()
+                {
+                    @Override
+                    public String convert( Integer value )
+                    {
+                        return "#" + value;
+                    }
+                } );
+
+        // when
+        String value = reader.convert( "21" );
+
+        // then
+        assertEquals( "#42", value );
+    }
 }
@@ -0,0 +1,146 @@
+package org.thobe.config.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class PersistentConfigurationTest
+{
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger(), 16 );
+    static Setting<String> banner = stringSetting( "banner", "none" );
+
+    @Test
+    public void shouldKeepEarlierVersionsReadable() throws Exception
+    {
+        // given
+        PersistentConfiguration configuration = new PersistentConfiguration( 4 );
+        PersistentConfiguration.Version first = configuration.set( cache_size, 32 );
+
+        // when
+        configuration.configure( cache_size, "64" );
+        configuration.configure( banner, "hello" );
+
+        // then
+        assertEquals( 32, (int) first.get( cache_size ) );
+        assertEquals( "none", first.get( banner ) );
+        assertEquals( 64, (int) configuration.get( cache_size ) );
+        assertEquals( "hello", configuration.get( banner ) );
+        assertEquals( 3, configuration.current().number() );
+    }
+
+    @Test
+    public void shouldRollBackToARetainedVersion() throws Exception
+    {
+        // given
+        PersistentConfiguration configuration = new PersistentConfiguration( 2 );
+        long good = configuration.set( cache_size, 32 ).number();
+        configuration.set( cache_size, 1 );
+
+        // when
+        PersistentConfiguration.Version restored = configuration.rollback( good );
+
+        // then
+        assertEquals( 3, restored.number() );
+        assertEquals( 32, (int) configuration.get( cache_size ) );
+        try
+        {
+            configuration.version( good );
+            fail( "should have thrown exception" );
+        }
+        catch ( IllegalArgumentException expected )
+        {
+            assertEquals( "Version 1 is no longer retained.", expected.getMessage() );
+        }
+    }
+
+    @Test
+    public void shouldParseValuesConfiguredThroughForeignParameters() throws Exception
+    {
+        // given
+        PersistentConfiguration configuration = new PersistentConfiguration( 4 );
+        configuration.set( cache_size, 32 );
+        Map<String, String> values = new HashMap<String, String>();
+        values.put( "cache_size", "128" );
+
+        // when
+        MergedSources.merge( ConfigurationSource.values( "test", values ) ).configure( configuration );
+
+        // then
+        assertEquals( 128, (int) configuration.get( cache_size ) );
+        assertEquals( 32, (int) configuration.version( 1 ).get( cache_size ) );
+    }
+
+    @Test
+    public void shouldRejectVersionsThatDoNotExist() throws Exception
+    {
+        // given
+        PersistentConfiguration configuration = new PersistentConfiguration( 4 );
+        configuration.set( cache_size, 32 );
+
+        for ( long number : new long[]{-1, 2, Long.MIN_VALUE} )
+        {
+            // when
+            try
+            {
+                configuration.version( number );
+                fail( "expected exception for " + number );
+            }
+            // then
+            catch ( IllegalArgumentException expected )
+            {
+                // not retained
+            }
+        }
+    }
+
+    @Test
+    public void shouldFallBackToTheDefaultForValuesSetToNull() throws Exception
+    {
+        // given
+        PersistentConfiguration configuration = new PersistentConfiguration( 4 );
+        configuration.set( cache_size, 32 );
+
+        // when
+        configuration.set( cache_size, null );
+
+        // then
+        assertEquals( 16, (int) configuration.get( cache_size ) );
+    }
+
+    @Test
+    public void shouldStoreManyKeysInTheTrie() throws Exception
+    {
+        // given
+        PersistentTrie<Integer> trie = PersistentTrie.empty();
+        Map<String, Integer> expected = new HashMap<String, Integer>();
+
+        // when
+        for ( int i = 0; i < 5000; i++ )
+        {
+            trie = trie.put( "key" + i, i );
+            expected.put( "key" + i, i );
+        }
+        PersistentTrie<Integer> updated = trie.put( "Aa", 1 ).put( "BB", 2 ).put( "key7", -7 );
+
+        // then
+        assertEquals( 5000, trie.size() );
+        for ( Map.Entry<String, Integer> entry : expected.entrySet() )
+        {
+            assertEquals( entry.getValue(), trie.get( entry.getKey() ) );
+        }
+        assertEquals( Integer.valueOf( 1 ), updated.get( "Aa" ) );
+        assertEquals( Integer.valueOf( 2 ), updated.get( "BB" ) );
+        assertEquals( Integer.valueOf( 7 ), trie.get( "key7" ) );
+        assertEquals( Integer.valueOf( -7 ), updated.get( "key7" ) );
+        assertNull( trie.get( "Aa" ) );
+        assertEquals( 5002, updated.size() );
+    }
+}
@@ -0,0 +1,272 @@
+package org.thobe.config.impl;
+
+import java.io.Closeable;
+import java.io.File;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.thobe.config.Parameter;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.listSetting;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class ReplicationTest
+{
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger(), 16 );
+    static Setting<String> banner = stringSetting( "banner", "none" );
+    static Setting<List<Integer>> ports = listSetting( "ports", readInteger().asInteger() );
+
+    @Test
+    public void shouldApplyFlushedDeltasOnFollowers() throws Exception
+    {
+        // given
+        Configuration primary = new Configuration(), replica = new Configuration();
+        ReplicationLeader leader = new ReplicationLeader( primary, 8 );
+        ReplicationFollower follower = new ReplicationFollower( replica, cache_size, banner, ports );
+        ReplicationTransport.loopback( leader, follower );
+
+        // when
+        primary.set( cache_size, 64 );
+        primary.configure( banner, "hello" );
+        primary.set( ports, asList( 80, 443 ) );
+        assertEquals( 16, (int) replica.get( cache_size ) );
+        leader.flush();
+
+        // then
+        assertEquals( 1, follower.version() );
+        assertEquals( 64, (int) replica.get( cache_size ) );
+        assertEquals( "hello", replica.get( banner ) );
+        assertEquals( asList( 80, 443 ), replica.get( ports ) );
+    }
+
+    @Test
+    public void shouldCoalesceChangesWithinOneDelta() throws Exception
+    {
+        // given
+        Configuration primary = new Configuration();
+        ReplicationLeader leader = new ReplicationLeader( primary, 8 );
+
+        // when
+        primary.set( cache_size, 1 );
+        primary.set( cache_size, 2 );
+        leader.flush();
+
+        // then
+        List<byte[]> deltas = leader.catchUp( 0 );
+        assertEquals( 1, deltas.size() );
+        ConfigurationDelta delta = ConfigurationDelta.decode( deltas.get( 0 ) );
+        assertEquals( 1, delta.changes.length );
+        assertEquals( 2, delta.changes[0].value );
+    }
+
+    @Test
+    public void shouldCatchUpFromSnapshotWhenDeltasAreNoLongerRetained() throws Exception
+    {
+        // given
+        Configuration primary = new Configuration(), replica = new Configuration();
+        ReplicationLeader leader = new ReplicationLeader( primary, 2 );
+        primary.configure( banner, "first" );
+        leader.flush();
+        for ( int i = 0; i < 5; i++ )
+        {
+            primary.set( cache_size, i );
+            leader.flush();
+        }
+
+        // when
+        ReplicationFollower follower = new ReplicationFollower( replica, cache_size, banner );
+        ReplicationTransport.loopback( leader, follower );
+
+        // then
+        assertEquals( 6, follower.version() );
+        assertEquals( 4, (int) replica.get( cache_size ) );
+        assertEquals( "first", replica.get( banner ) );
+    }
+
+    @Test
+    public void shouldReplicateOverTcp() throws Exception
+    {
+        // given
+        Configuration primary = new Configuration(), replica = new Configuration();
+        ReplicationLeader leader = new ReplicationLeader( primary, 8 );
+        primary.set( cache_size, 32 );
+        leader.flush();
+        ReplicationFollower follower = new ReplicationFollower( replica, cache_size );
+        try ( ServerSocket server = new ServerSocket( 0, 50, InetAddress.getLoopbackAddress() );
+              Closeable serving = ReplicationTransport.serve( leader, server );
+              Closeable following = ReplicationTransport.follow(
+                      follower, new InetSocketAddress( InetAddress.getLoopbackAddress(), server.getLocalPort() ),
+                      10 ) )
+        {
+            awaitVersion( follower, 1 );
+
+            // when
+            primary.set( cache_size, 48 );
+            leader.flush();
+            awaitVersion( follower, 2 );
+
+            // then
+            assertEquals( 48, (int) replica.get( cache_size ) );
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidDeltaAsAWholeAndDetachOnlyThatFollower() throws Exception
+    {
+        // given
+        Setting<Integer> limit = setting( "limit", readInteger().asInteger(), 2 );
+        Configuration primary = new Configuration(), strict = new Configuration(), lenient = new Configuration();
+        ReplicationLeader leader = new ReplicationLeader( primary, 8 );
+        ReplicationFollower rejecting = new ReplicationFollower( strict, cache_size, limit );
+        ReplicationFollower accepting = new ReplicationFollower( lenient, cache_size );
+        ReplicationTransport.loopback( leader, rejecting );
+        ReplicationTransport.loopback( leader, accepting );
+
+        // when
+        primary.set( cache_size, 9 );
+        primary.configure( parameter( "limit" ), "notanumber" );
+        leader.flush();
+
+        // then
+        assertEquals( 0, rejecting.version() );
+        assertEquals( 16, (int) strict.get( cache_size ) );
+        assertEquals( 1, accepting.version() );
+        assertEquals( 9, (int) lenient.get( cache_size ) );
+
+        // when
+        primary.set( cache_size, 10 );
+        leader.flush();
+
+        // then
+        assertEquals( 2, accepting.version() );
+        assertEquals( 16, (int) strict.get( cache_size ) );
+    }
+
+    @Test
+    public void shouldNotBlockConfigurationChangesWhileSendingToASlowFollower() throws Exception
+    {
+        // given
+        final Configuration primary = new Configuration(), replica = new Configuration();
+        final ReplicationLeader leader = new ReplicationLeader( primary, 8 );
+        ReplicationTransport.loopback( leader, new ReplicationFollower( replica, cache_size ) );
+        final CountDownLatch locked = new CountDownLatch( 1 ), release = new CountDownLatch( 1 );
+        ExecutorService threads = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            // the follower applies deltas under its configuration lock, holding it makes the follower slow
+            threads.submit( new Callable<Void>()
+            {
+                @Override
+                public Void call() throws Exception
+                {
+                    synchronized ( replica )
+                    {
+                        locked.countDown();
+                        release.await();
+                    }
+                    return null;
+                }
+            } );
+            locked.await();
+            primary.set( cache_size, 1 );
+            Future<Long> flushing = threads.submit( new Callable<Long>()
+            {
+                @Override
+                public Long call()
+                {
+                    return leader.flush();
+                }
+            } );
+            Thread.sleep( 50 );
+
+            // when
+            primary.set( cache_size, 2 );
+
+            // then
+            assertEquals( 2, (int) primary.get( cache_size ) );
+            release.countDown();
+            assertEquals( 1L, (long) flushing.get( 10, TimeUnit.SECONDS ) );
+            assertEquals( 2L, leader.flush() );
+            assertEquals( 2, (int) replica.get( cache_size ) );
+        }
+        finally
+        {
+            release.countDown();
+            threads.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldRejectValuesThatCannotBeReplicated() throws Exception
+    {
+        // given
+        Setting<File> home = setting( "home", new Conversion<String, File>()
+        {
+            @Override
+            public File convert( String value )
+            {
+                return new File( value );
+            }
+        } );
+        Configuration primary = new Configuration(), replica = new Configuration();
+        ReplicationLeader leader = new ReplicationLeader( primary, 8 );
+        ReplicationTransport.loopback( leader, new ReplicationFollower( replica, home ) );
+        primary.configure( home, "first" );
+        leader.flush();
+
+        // when
+        try
+        {
+            primary.set( home, new File( "second" ) );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertEquals( new File( "first" ), primary.get( home ) );
+            assertEquals( new File( "first" ), replica.get( home ) );
+        }
+    }
+
+    private static Parameter parameter( final String name )
+    {
+        return new Parameter()
+        {
+            @Override
+            public String name()
+            {
+                return name;
+            }
+
+            @Override
+            public void verify( String value )
+            {
+                // anything goes
+            }
+        };
+    }
+
+    private static void awaitVersion( ReplicationFollower follower, long version ) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + 10000;
+        while ( follower.version() < version && System.currentTimeMillis() < deadline )
+        {
+            Thread.sleep( 5 );
+        }
+        assertEquals( version, follower.version() );
+    }
+}
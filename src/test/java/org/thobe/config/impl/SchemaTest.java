@@ -0,0 +1,162 @@
+package org.thobe.config.impl;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.thobe.config.impl.DataSizeSetting.readDataSize;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.booleanSetting;
+import static org.thobe.config.impl.Setting.listSetting;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class SchemaTest
+{
+    static Setting<Integer> pool_size = setting( "pool_size", readInteger().lowerLimit( 0 ).upperLimit( 64 )
+                                                                           .asInteger(), 10 );
+    static Setting<Long> cache_size = setting( "cache_size", readDataSize().atMost( "1G" ).asBytes() );
+    static Setting<List<Integer>> ports = listSetting( "ports", ";", readInteger().asInteger() );
+    static Setting<Boolean> enabled = booleanSetting( "enabled" );
+    static Setting<String> banner = stringSetting( "banner", "hello" );
+
+    @Test
+    public void shouldRoundTripSchemaThroughTextFormat() throws Exception
+    {
+        // given
+        StringWriter target = new StringWriter();
+
+        // when
+        Schema.fromFields( SchemaTest.class ).writeTo( target );
+        Schema schema = Schema.read( new StringReader( target.toString() ) );
+
+        // then
+        Schema.Entry pool = schema.entry( "pool_size" );
+        assertEquals( "integer:int", pool.type() );
+        assertEquals( "0", pool.lowerLimit() );
+        assertEquals( "64", pool.upperLimit() );
+        assertEquals( "10", pool.defaultValue() );
+        assertEquals( "datasize", schema.entry( "cache_size" ).type() );
+        assertEquals( Long.toString( 1L << 30 ), schema.entry( "cache_size" ).upperLimit() );
+        assertEquals( "list(integer:int)", schema.entry( "ports" ).type() );
+        assertEquals( ";", schema.entry( "ports" ).separator() );
+        assertEquals( "boolean", schema.entry( "enabled" ).type() );
+        assertNull( schema.entry( "enabled" ).defaultValue() );
+        assertEquals( "hello", schema.entry( "banner" ).defaultValue() );
+    }
+
+    @Test
+    public void shouldReportInvalidLinesWithTheirLocation() throws Exception
+    {
+        // given
+        Schema schema = Schema.of( pool_size, cache_size, ports, enabled );
+        SchemaValidator validator = new SchemaValidator( schema );
+        StringBuilder report = new StringBuilder();
+
+        // when
+        int failures = validator.validate( "app.conf", new StringReader(
+                "# comment\n" +
+                "pool_size = 100\n" +
+                "cache_size = 512M\n" +
+                "ports = 80;x\n" +
+                "enabled = yes\n" +
+                "unknown = 1\n" ), report );
+
+        // then
+        assertEquals( 3, failures );
+        String[] lines = report.toString().split( "\n" );
+        assertTrue( lines[0], lines[0].startsWith( "app.conf:2: [pool_size] " ) );
+        assertTrue( lines[1], lines[1].startsWith( "app.conf:4: [ports] " ) );
+        assertEquals( "app.conf:6: [unknown] Unknown setting.", lines[2] );
+    }
+
+    @Test
+    public void shouldAcceptEmptyValuesForSettingsWithDefaults() throws Exception
+    {
+        // given
+        Schema schema = Schema.of( ports, listSetting( "hosts", Conversion.NoConversion.<String>noConversion(),
+                                                       "localhost" ) );
+        StringBuilder report = new StringBuilder();
+
+        // when
+        int failures = new SchemaValidator( schema ).allowUnknown( true )
+                                                    .validate( "app.conf", new StringReader(
+                                                            "hosts=\nports=\nother=1\n" ), report );
+
+        // then
+        assertEquals( 1, failures );
+        assertTrue( report.toString(), report.toString().startsWith( "app.conf:2: [ports] " ) );
+    }
+
+    @Test
+    public void shouldReadConfigurationsWithThePropertiesFileSyntax() throws Exception
+    {
+        // given
+        Schema schema = Schema.of( pool_size, cache_size, ports, enabled );
+        StringBuilder report = new StringBuilder();
+
+        // when
+        int failures = new SchemaValidator( schema ).validate( "app.conf", new StringReader(
+                "cache_size 512M\n" +
+                "pool_size:8\n" +
+                "  ! comment\n" +
+                "ports = 80;\\\n" +
+                "        443;\\\n" +
+                "        x\n" +
+                "en\\u0061bled = maybe\n" ), report );
+
+        // then
+        assertEquals( report.toString(), 2, failures );
+        String[] lines = report.toString().split( "\n" );
+        assertTrue( lines[0], lines[0].startsWith( "app.conf:4: [ports] " ) );
+        assertTrue( lines[1], lines[1].startsWith( "app.conf:7: [enabled] " ) );
+    }
+
+    @Test
+    public void shouldDescribeProvidedDefaultsApartFromDefaultValues() throws Exception
+    {
+        // given
+        Setting<Integer> workers = setting( "workers", readInteger().asInteger(), new DefaultValueProvider<Integer>()
+        {
+            @Override
+            public Integer provideDefault()
+            {
+                return Runtime.getRuntime().availableProcessors();
+            }
+
+            @Override
+            public String toString()
+            {
+                return "available processors";
+            }
+        } );
+        StringWriter target = new StringWriter();
+
+        // when
+        Schema.of( workers, pool_size ).writeTo( target );
+        Schema schema = Schema.read( new StringReader( target.toString() ) );
+
+        // then
+        assertNull( schema.entry( "workers" ).defaultValue() );
+        assertEquals( "available processors", schema.entry( "workers" ).defaultProvider() );
+        assertTrue( schema.entry( "workers" ).hasDefault() );
+        assertEquals( "10", schema.entry( "pool_size" ).defaultValue() );
+        assertNull( schema.entry( "pool_size" ).defaultProvider() );
+    }
+
+    @Test
+    public void shouldReadSchemasWithoutProviderColumn() throws Exception
+    {
+        // when
+        Schema schema = Schema.read( new StringReader( "pool_size\tinteger:int\t0\t64\t\t10\n" ) );
+
+        // then
+        assertEquals( "10", schema.entry( "pool_size" ).defaultValue() );
+        assertNull( schema.entry( "pool_size" ).defaultProvider() );
+    }
+}
@@ -0,0 +1,146 @@
+package org.thobe.config.impl;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SettingProcessorTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldGenerateSpecializedSettings() throws Exception
+    {
+        // given
+        Class<?> declarations = compile( "StorageSettings",
+                "package example;\n" +
+                "import org.thobe.config.impl.GeneratedSettings;\n" +
+                "import org.thobe.config.impl.SettingSpec;\n" +
+                "@GeneratedSettings\n" +
+                "public interface StorageSettings {\n" +
+                "    @SettingSpec(defaultValue = \"64\", lowerLimit = \"0\", upperLimit = \"1024\") int cacheSize();\n" +
+                "    @SettingSpec(name = \"storage.ratio\", upperLimit = \"1.0\") double ratio();\n" +
+                "    @SettingSpec(defaultValue = \"yes\") boolean enabled();\n" +
+                "    String dataDir();\n" +
+                "}\n" ).loadClass( "example.StorageSettingsDeclarations" );
+        Setting<?> cacheSize = (Setting<?>) declarations.getField( "CACHE_SIZE" ).get( null );
+        Setting<?> ratio = (Setting<?>) declarations.getField( "RATIO" ).get( null );
+        Setting<?> enabled = (Setting<?>) declarations.getField( "ENABLED" ).get( null );
+        Setting<?> dataDir = (Setting<?>) declarations.getField( "DATA_DIR" ).get( null );
+        Configuration configuration = new Configuration();
+
+        // when
+        configuration.configure( cacheSize, "0x100" );
+        configuration.configure( dataDir, "/var/data" );
+
+        // then
+        assertEquals( 4, ((Setting<?>[]) declarations.getField( "ALL" ).get( null )).length );
+        assertEquals( "storage.ratio", ratio.name() );
+        assertEquals( 256, configuration.get( cacheSize ) );
+        assertEquals( true, configuration.get( enabled ) );
+        assertEquals( "/var/data", configuration.get( dataDir ) );
+        assertRejected( cacheSize, "1024", "1024 is not within the valid range [0,1024]." );
+        assertRejected( cacheSize, "-1", "-1 is not within the valid range [0,1024]." );
+        assertRejected( ratio, "1.5", "1.5 is not within the valid range [-Infinity,1.0]." );
+    }
+
+    @Test
+    public void shouldRejectUnsupportedTypes() throws Exception
+    {
+        // when
+        try
+        {
+            compile( "Broken",
+                     "package example;\n" +
+                     "@org.thobe.config.impl.GeneratedSettings\n" +
+                     "public interface Broken {\n" +
+                     "    java.util.Date started();\n" +
+                     "}\n" );
+            fail( "should have failed" );
+        }
+        // then
+        catch ( AssertionError expected )
+        {
+            assertTrue( expected.getMessage(), expected.getMessage().contains( "Unsupported setting type" ) );
+        }
+    }
+
+    @Test
+    public void shouldRejectDefaultsOutsideTheLimits() throws Exception
+    {
+        // when
+        try
+        {
+            compile( "OutOfRange",
+                     "package example;\n" +
+                     "import org.thobe.config.impl.SettingSpec;\n" +
+                     "@org.thobe.config.impl.GeneratedSettings\n" +
+                     "public interface OutOfRange {\n" +
+                     "    @SettingSpec(defaultValue = \"5\", lowerLimit = \"10\") int retries();\n" +
+                     "}\n" );
+            fail( "should have failed" );
+        }
+        // then
+        catch ( AssertionError expected )
+        {
+            assertTrue( expected.getMessage(),
+                        expected.getMessage().contains( "Default value 5 is not within the limits (10, unlimited)." ) );
+        }
+    }
+
+    private static void assertRejected( Setting<?> setting, String value, String message )
+    {
+        try
+        {
+            setting.verify( value );
+            fail( "should have rejected " + value );
+        }
+        catch ( org.thobe.config.InvalidConfigurationValueException expected )
+        {
+            assertEquals( message, expected.getMessage() );
+        }
+    }
+
+    private ClassLoader compile( String name, String source ) throws Exception
+    {
+        File sources = folder.newFolder(), classes = folder.newFolder();
+        File file = new File( sources, name + ".java" );
+        try ( Writer writer = new OutputStreamWriter( new FileOutputStream( file ), StandardCharsets.UTF_8 ) )
+        {
+            writer.write( source );
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StringWriter diagnostics = new StringWriter();
+        try ( StandardJavaFileManager files = compiler.getStandardFileManager( null, null, StandardCharsets.UTF_8 ) )
+        {
+            boolean compiled = compiler.getTask(
+                    diagnostics, files, null,
+                    Arrays.asList( "-classpath", System.getProperty( "java.class.path" ), "-d", classes.getPath(),
+                                   "-s", sources.getPath(), "-processor", SettingProcessor.class.getName() ),
+                    null, files.getJavaFileObjects( file ) ).call();
+            if ( !compiled )
+            {
+                throw new AssertionError( diagnostics.toString() );
+            }
+        }
+        return new URLClassLoader( new URL[]{classes.toURI().toURL()}, getClass().getClassLoader() );
+    }
+}
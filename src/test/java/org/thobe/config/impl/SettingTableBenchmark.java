@@ -0,0 +1,159 @@
+package org.thobe.config.impl;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.setting;
+
+// lookups and heap per entry of the setting table against the maps Configuration used to keep:
+// settings and raw values by name, and verified values by setting identity
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SettingTableBenchmark
+{
+    @Param({"16", "1000"})
+    public int entries;
+
+    private Setting<?>[] settings;
+    private SettingTable table;
+    private Map<String, Setting<?>> byName;
+    private Map<Setting<?>, Object> verified;
+    private int next;
+
+    @Setup
+    public void fill()
+    {
+        settings = new Setting<?>[entries];
+        for ( int i = 0; i < entries; i++ )
+        {
+            settings[i] = setting( "setting_" + i, readInteger().asInteger() );
+        }
+        table = table( settings );
+        byName = new HashMap<String, Setting<?>>();
+        verified = new IdentityHashMap<Setting<?>, Object>();
+        maps( settings, byName, new HashMap<String, String>(), verified );
+    }
+
+    @Benchmark
+    public Object tableLookup()
+    {
+        Setting<?> setting = settings[next++ % entries];
+        int slot = table.find( setting.name() );
+        return table.setting( slot ) == setting ? table.value( slot ) : null;
+    }
+
+    @Benchmark
+    public Object mapLookup()
+    {
+        Setting<?> setting = settings[next++ % entries];
+        return byName.get( setting.name() ) == setting ? verified.get( setting ) : null;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint
+    {
+        public long bytesPerEntry;
+
+        @Setup(Level.Iteration)
+        public void reset()
+        {
+            bytesPerEntry = 0;
+        }
+    }
+
+    // a thousand tables or sets of maps at a time, the benchmark time itself is not of interest
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object tableFootprint( Footprint footprint )
+    {
+        long before = HeapUsage.used();
+        SettingTable[] tables = new SettingTable[1000];
+        for ( int i = 0; i < tables.length; i++ )
+        {
+            tables[i] = table( settings );
+        }
+        footprint.bytesPerEntry = (HeapUsage.used() - before) / ((long) tables.length * entries);
+        return tables;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object mapFootprint( Footprint footprint )
+    {
+        long before = HeapUsage.used();
+        Object[] maps = new Object[1000];
+        for ( int i = 0; i < maps.length; i++ )
+        {
+            Map<String, Setting<?>> byName = new HashMap<String, Setting<?>>();
+            Map<String, String> raw = new HashMap<String, String>();
+            Map<Setting<?>, Object> verified = new IdentityHashMap<Setting<?>, Object>();
+            maps( settings, byName, raw, verified );
+            maps[i] = new Object[]{byName, raw, verified};
+        }
+        footprint.bytesPerEntry = (HeapUsage.used() - before) / ((long) maps.length * entries);
+        return maps;
+    }
+
+    // half of the values are still raw, the other half verified
+    private static SettingTable table( Setting<?>[] settings )
+    {
+        SettingTable table = new SettingTable();
+        for ( int i = 0; i < settings.length; i++ )
+        {
+            int slot = table.slot( settings[i].name() );
+            table.setting( slot, settings[i] );
+            if ( (i & 1) == 0 )
+            {
+                table.raw( slot, settings[i], Interner.STRINGS.intern( Integer.toString( i ) ) );
+            }
+            else
+            {
+                table.value( slot, i );
+            }
+        }
+        return table;
+    }
+
+    private static void maps( Setting<?>[] settings, Map<String, Setting<?>> byName, Map<String, String> raw,
+                              Map<Setting<?>, Object> verified )
+    {
+        for ( int i = 0; i < settings.length; i++ )
+        {
+            byName.put( settings[i].name(), settings[i] );
+            if ( (i & 1) == 0 )
+            {
+                raw.put( settings[i].name(), Interner.STRINGS.intern( Integer.toString( i ) ) );
+            }
+            else
+            {
+                verified.put( settings[i], i );
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.thobe.config.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class SettingTableTest
+{
+    @Test
+    public void shouldNotFindNamesThatHaveNotBeenAdded() throws Exception
+    {
+        // given
+        SettingTable table = new SettingTable();
+        table.slot( "present" );
+
+        // when
+        int slot = table.find( "absent" );
+
+        // then
+        assertEquals( -1, slot );
+    }
+
+    @Test
+    public void shouldKeepPerNameStateWhenGrowing() throws Exception
+    {
+        // given
+        SettingTable table = new SettingTable();
+
+        // when
+        for ( int i = 0; i < 1000; i++ )
+        {
+            int slot = table.slot( "setting_" + i );
+            table.raw( slot, null, "raw_" + i );
+            table.value( slot, i );
+        }
+
+        // then
+        assertEquals( 1000, table.size() );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            int slot = table.find( "setting_" + i );
+            assertEquals( "setting_" + i, table.name( slot ) );
+            assertEquals( "raw_" + i, table.raw( slot ) );
+            assertEquals( i, table.value( slot ) );
+            assertNull( table.setting( slot ) );
+        }
+    }
+
+    @Test
+    public void shouldReuseSlotForSameName() throws Exception
+    {
+        // given
+        SettingTable table = new SettingTable();
+        int slot = table.slot( "cache_size" );
+
+        // when
+        int again = table.slot( new String( "cache_size" ) );
+
+        // then
+        assertEquals( slot, again );
+        assertEquals( 1, table.size() );
+    }
+}
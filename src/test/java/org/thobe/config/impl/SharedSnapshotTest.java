@@ -0,0 +1,196 @@
+package org.thobe.config.impl;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.thobe.config.impl.NumericSetting.readFloatingPoint;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.booleanSetting;
+import static org.thobe.config.impl.Setting.listSetting;
+import static org.thobe.config.impl.Setting.setting;
+import static org.thobe.config.impl.Setting.stringSetting;
+
+public class SharedSnapshotTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().asInteger() );
+    static Setting<Double> ratio = setting( "ratio", readFloatingPoint().asDouble(), 0.5 );
+    static Setting<Boolean> enabled = booleanSetting( "enabled" );
+    static Setting<String> banner = stringSetting( "banner", "hello" );
+    static Setting<List<Long>> ports = listSetting( "ports", readInteger().asLong() );
+
+    @Test
+    public void shouldServeValuesFromThePublishedMapping() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Configuration configuration = new Configuration();
+        configuration.configure( cache_size, "128" );
+        configuration.configure( enabled, "yes" );
+        configuration.configure( ports, "80,443" );
+        configuration.get( ratio );
+        SharedSnapshot.publish( configuration, control );
+
+        // when
+        SharedSnapshot snapshot = SharedSnapshot.map( control );
+
+        // then
+        assertEquals( 128, (int) snapshot.get( cache_size ) );
+        assertEquals( 0.5, snapshot.get( ratio ), 0.0 );
+        assertEquals( true, snapshot.get( enabled ) );
+        assertEquals( asList( 80L, 443L ), snapshot.get( ports ) );
+        assertEquals( "hello", snapshot.get( banner ) );
+        assertFalse( snapshot.contains( "banner" ) );
+    }
+
+    @Test
+    public void shouldPickUpNewGenerations() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Configuration configuration = new Configuration();
+        configuration.set( cache_size, 1 );
+        SharedSnapshot.publish( configuration, control );
+        SharedSnapshot snapshot = SharedSnapshot.map( control );
+        assertEquals( 1, (int) snapshot.get( cache_size ) );
+
+        // when
+        configuration.set( cache_size, 2 );
+        SharedSnapshot.publish( configuration, control );
+        configuration.set( cache_size, 3 );
+        long generation = SharedSnapshot.publish( configuration, control );
+
+        // then
+        assertEquals( 3, (int) snapshot.get( cache_size ) );
+        assertEquals( generation, snapshot.generation() );
+        assertFalse( new File( folder.getRoot(), "config.1" ).exists() );
+    }
+
+    @Test
+    public void shouldRefuseToPublishInvalidValues() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+        configuration.configure( cache_size, "many" );
+
+        // when
+        try
+        {
+            SharedSnapshot.publish( configuration, control );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( SettingNotConfiguredException expected )
+        {
+            assertFalse( new File( control.getPath() + ".1" ).exists() );
+        }
+    }
+
+    @Test
+    public void shouldPublishValuesFromSourcesForTheGivenSettings() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Configuration configuration = new Configuration();
+        configuration.configure( ConfigurationSource.values(
+                "file", Collections.singletonMap( "cache_size", "128" ) ) );
+
+        // when
+        SharedSnapshot.publish( configuration, control, cache_size );
+
+        // then
+        assertEquals( 128, (int) SharedSnapshot.map( control ).get( cache_size ) );
+    }
+
+    @Test
+    public void shouldRefuseToPublishValuesWithoutSetting() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Configuration configuration = new Configuration();
+        configuration.configure( ConfigurationSource.values(
+                "file", Collections.singletonMap( "cache_size", "128" ) ) );
+
+        // when
+        try
+        {
+            SharedSnapshot.publish( configuration, control );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertTrue( expected.getMessage().contains( "[cache_size]" ) );
+            assertFalse( new File( control.getPath() + ".1" ).exists() );
+        }
+    }
+
+    @Test
+    public void shouldRefuseToPublishValuesThatCannotBeShared() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Setting<File> home = setting( "home", new Conversion<String, File>()
+        {
+            @Override
+            public File convert( String value )
+            {
+                return new File( value );
+            }
+        } );
+        Configuration configuration = new Configuration();
+        configuration.configure( home, "/var/lib" );
+
+        // when
+        try
+        {
+            SharedSnapshot.publish( configuration, control );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalArgumentException expected )
+        {
+            assertTrue( expected.getMessage().contains( "[home]" ) );
+            assertFalse( new File( control.getPath() + ".1" ).exists() );
+        }
+    }
+
+    @Test
+    public void shouldFailWhenTheCurrentGenerationIsMissing() throws Exception
+    {
+        // given
+        File control = new File( folder.getRoot(), "config" );
+        Configuration configuration = new Configuration();
+        configuration.set( cache_size, 1 );
+        SharedSnapshot.publish( configuration, control );
+        SharedSnapshot snapshot = SharedSnapshot.map( control );
+        configuration.set( cache_size, 2 );
+        long generation = SharedSnapshot.publish( configuration, control );
+        assertTrue( new File( control.getPath() + '.' + generation ).delete() );
+
+        // when
+        try
+        {
+            snapshot.get( cache_size );
+            fail( "expected exception" );
+        }
+        // then
+        catch ( IllegalStateException expected )
+        {
+            assertTrue( expected.getMessage().contains( "missing" ) );
+        }
+    }
+}
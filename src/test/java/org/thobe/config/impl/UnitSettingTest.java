@@ -0,0 +1,208 @@
+package org.thobe.config.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class UnitSettingTest
+{
+    @Test
+    public void shouldReadDurationsWithUnitSuffix() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DurationSetting.readDuration().asNanos();
+
+        // then
+        assertEquals( Long.valueOf( 250000000L ), reader.convert( "250ms" ) );
+        assertEquals( Long.valueOf( 5000000000L ), reader.convert( "5s" ) );
+        assertEquals( Long.valueOf( 90000000000L ), reader.convert( "1.5min" ) );
+        assertEquals( Long.valueOf( 7200000000000L ), reader.convert( " 2 h " ) );
+        assertEquals( Long.valueOf( 0L ), reader.convert( "0" ) );
+    }
+
+    @Test
+    public void shouldConvertDurationToRequestedUnit() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DurationSetting.readDuration().asMillis();
+
+        // then
+        assertEquals( Long.valueOf( 60000L ), reader.convert( "1m" ) );
+    }
+
+    @Test
+    public void shouldRejectDurationWithoutKnownUnit() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DurationSetting.readDuration().asNanos();
+
+        // when
+        try
+        {
+            reader.convert( "5 fortnights" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidQuantityException expected )
+        {
+            assertEquals( "5 fortnights", expected.value() );
+        }
+    }
+
+    @Test
+    public void shouldRejectDurationOutsideLimitsGivenInOwnUnits() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DurationSetting.readDuration()
+                .atLeast( "10ms" ).atMost( "1s" ).asMillis();
+
+        // when
+        try
+        {
+            reader.convert( "2s" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidRangeException expected )
+        {
+            assertEquals( "2000 is not within the valid range [10,1000].", expected.getMessage() );
+        }
+        assertEquals( Long.valueOf( 1000L ), reader.convert( "1s" ) );
+    }
+
+    @Test
+    public void shouldReadBinaryAndDecimalDataSizes() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DataSizeSetting.readDataSize().asBytes();
+
+        // then
+        assertEquals( Long.valueOf( 64L << 20 ), reader.convert( "64MiB" ) );
+        assertEquals( Long.valueOf( 64L << 20 ), reader.convert( "64M" ) );
+        assertEquals( Long.valueOf( 64000000L ), reader.convert( "64MB" ) );
+        assertEquals( Long.valueOf( 512L ), reader.convert( "512" ) );
+        assertEquals( Long.valueOf( 1536L ), reader.convert( "1.5KiB" ) );
+    }
+
+    @Test
+    public void shouldRejectDataSizeThatOverflows() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DataSizeSetting.readDataSize().asBytes();
+
+        // when
+        try
+        {
+            reader.convert( "9000000TiB" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidQuantityException expected )
+        {
+            assertEquals( "9000000TiB", expected.value() );
+        }
+    }
+
+    @Test
+    public void shouldRejectDataSizeWhereTheFractionOverflows() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DataSizeSetting.readDataSize().asBytes();
+
+        // when
+        try
+        {
+            reader.convert( "8388607.999999999999999TiB" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidQuantityException expected )
+        {
+            assertEquals( "8388607.999999999999999TiB", expected.value() );
+        }
+    }
+
+    @Test
+    public void shouldRequireDigitsAfterTheDecimalPoint() throws Exception
+    {
+        // given
+        Conversion<String, Long> durations = DurationSetting.readDuration().asMillis();
+        Conversion<String, Long> sizes = DataSizeSetting.readDataSize().asBytes();
+
+        // when
+        for ( String value : new String[]{".", "5.", ".s", "5.s"} )
+        {
+            try
+            {
+                durations.convert( value );
+                fail( "should have rejected " + value );
+            }
+            // then
+            catch ( InvalidQuantityException expected )
+            {
+                assertEquals( value, expected.value() );
+            }
+        }
+        for ( String value : new String[]{".", "5.", "5.KiB"} )
+        {
+            try
+            {
+                sizes.convert( value );
+                fail( "should have rejected " + value );
+            }
+            // then
+            catch ( InvalidQuantityException expected )
+            {
+                assertEquals( value, expected.value() );
+            }
+        }
+        assertEquals( Long.valueOf( 500 ), durations.convert( ".5s" ) );
+        assertEquals( Long.valueOf( 512 ), sizes.convert( ".5KiB" ) );
+    }
+
+    @Test
+    public void shouldAcceptDurationsAtTheLimits() throws Exception
+    {
+        // given
+        Conversion<String, Long> reader = DurationSetting.readDuration()
+                .atLeast( "10ms" ).atMost( "1s" ).asMillis();
+
+        // when
+        Long lowest = reader.convert( "10ms" ), highest = reader.convert( "1000ms" );
+
+        // then
+        assertEquals( Long.valueOf( 10L ), lowest );
+        assertEquals( Long.valueOf( 1000L ), highest );
+    }
+
+    @Test
+    public void shouldReadPercentageAsFraction() throws Exception
+    {
+        // given
+        Conversion<String, Double> reader = PercentageSetting.readPercentage().asFraction();
+
+        // then
+        assertEquals( 0.75, reader.convert( "75%" ), 0.0 );
+        assertEquals( 0.125, reader.convert( "12.5" ), 0.0 );
+    }
+
+    @Test
+    public void shouldRejectPercentageAboveOneHundred() throws Exception
+    {
+        // given
+        Conversion<String, Double> reader = PercentageSetting.readPercentage().asFraction();
+
+        // when
+        try
+        {
+            reader.convert( "150%" );
+            fail( "should have thrown exception" );
+        }
+        // then
+        catch ( InvalidRangeException expected )
+        {
+            assertEquals( "150 is not within the valid range [0,100].", expected.getMessage() );
+        }
+    }
+}
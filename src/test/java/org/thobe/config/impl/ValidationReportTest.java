@@ -0,0 +1,134 @@
+package org.thobe.config.impl;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.thobe.config.impl.NumericSetting.readInteger;
+import static org.thobe.config.impl.Setting.booleanSetting;
+import static org.thobe.config.impl.Setting.setting;
+
+public class ValidationReportTest
+{
+    static Setting<Integer> cache_size = setting( "cache_size", readInteger().upperLimit( 1000 ).asInteger() );
+    static Setting<Boolean> enabled = booleanSetting( "enabled" );
+    static Setting<Integer> port = setting( "port", readInteger().asInteger() );
+
+    @Test
+    public void shouldReportAllInvalidValuesInOnePass() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+        configuration.configure( cache_size, "5000" );
+        configuration.configure( enabled, "maybe" );
+        configuration.configure( port, "8080" );
+
+        // when
+        ValidationReport report = configuration.validate( 10 );
+
+        // then
+        assertFalse( report.isValid() );
+        assertEquals( 2, report.failureCount() );
+        assertEquals( 3, report.checkedCount() );
+        Map<String, ValidationReport.Failure> failures = new HashMap<String, ValidationReport.Failure>();
+        for ( ValidationReport.Failure failure : report.failures() )
+        {
+            failures.put( failure.name(), failure );
+        }
+        assertEquals( "5000", failures.get( "cache_size" ).value() );
+        assertEquals( 1000, failures.get( "cache_size" ).upperLimit().intValue() );
+        assertEquals( "maybe", failures.get( "enabled" ).value() );
+        assertNull( failures.get( "enabled" ).lowerLimit() );
+        assertEquals( Integer.valueOf( 8080 ), configuration.get( port ) );
+    }
+
+    @Test
+    public void shouldParseValuesFromSourcesWithTheGivenSettings() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.configure( ConfigurationSource.values( "file", Collections.singletonMap( "port", "junk" ) ) );
+
+        // when
+        ValidationReport report = configuration.validate( 10, port, enabled );
+
+        // then
+        assertEquals( 2, report.failureCount() );
+        assertEquals( 2, report.checkedCount() );
+        Map<String, ValidationReport.Failure> failures = new HashMap<String, ValidationReport.Failure>();
+        for ( ValidationReport.Failure failure : report.failures() )
+        {
+            failures.put( failure.name(), failure );
+        }
+        assertEquals( "junk", failures.get( "port" ).value() );
+        assertTrue( failures.containsKey( "enabled" ) );
+    }
+
+    @Test
+    public void shouldReportMissingRequiredSettings() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration();
+        configuration.getAsync( port );
+
+        // when
+        ValidationReport report = configuration.validate( 10 );
+
+        // then
+        assertEquals( 1, report.failureCount() );
+        assertEquals( "port", report.failures().get( 0 ).name() );
+    }
+
+    @Test
+    public void shouldCapTheNumberOfReportedFailures() throws Exception
+    {
+        // given
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+        for ( int i = 0; i < 500; i++ )
+        {
+            configuration.configure( setting( "setting_" + i, readInteger().asInteger() ), "junk" );
+        }
+
+        // when
+        ValidationReport report = configuration.validate( 10 );
+
+        // then
+        assertEquals( 500, report.failureCount() );
+        assertEquals( 10, report.failures().size() );
+        assertTrue( report.isTruncated() );
+    }
+
+    @Test
+    public void shouldReportConversionsThatThrow() throws Exception
+    {
+        // given
+        Setting<Integer> broken = setting( "broken", new Conversion<String, Integer>()
+        {
+            @Override
+            public Integer convert( String value )
+            {
+                throw new IllegalStateException( "conversion bug" );
+            }
+        } );
+        Configuration configuration = new Configuration().validationPolicy( ValidationPolicy.LAZY );
+        configuration.configure( broken, "1" );
+        configuration.configure( port, "8080" );
+
+        // when
+        ValidationReport report = configuration.validate( 10 );
+
+        // then
+        assertEquals( 1, report.failureCount() );
+        assertEquals( 2, report.checkedCount() );
+        ValidationReport.Failure failure = report.failures().get( 0 );
+        assertEquals( "broken", failure.name() );
+        assertEquals( "1", failure.value() );
+        assertTrue( failure.cause().getCause() instanceof IllegalStateException );
+    }
+}